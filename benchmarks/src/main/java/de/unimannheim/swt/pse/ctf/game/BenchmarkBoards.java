@@ -0,0 +1,109 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyPiecesException;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.map.PieceDescription;
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Creates the maps the benchmarks run on, from the 10x10 example template. Bigger grids get
+ * proportionally more pieces and blocks, so the board density stays about the same.
+ */
+final class BenchmarkBoards {
+
+  private BenchmarkBoards() {}
+
+  /**
+   * @param gridSize rows and columns of the grid
+   * @param teams number of teams
+   * @param placement how the pieces get placed
+   * @return the example template scaled to the grid size
+   */
+  static MapTemplate template(int gridSize, int teams, PlacementType placement) {
+    MapTemplate template;
+    try (InputStream in =
+        BenchmarkBoards.class.getResourceAsStream("/maptemplates/10x10_2teams_example.json")) {
+      template = new ObjectMapper().readValue(in, MapTemplate.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    int scale = Math.max(1, gridSize / 10);
+    template.setGridSize(new int[] {gridSize, gridSize});
+    template.setTeams(teams);
+    template.setBlocks(gridSize * gridSize / 25);
+    template.setPlacement(placement);
+    for (PieceDescription piece : template.getPieces()) piece.setCount(piece.getCount() * scale);
+    return template;
+  }
+
+  /**
+   * @param template the map template
+   * @return a GameState with grid, bases and blocks, but no teams yet
+   */
+  static GameState created(MapTemplate template) {
+    GameState gameState = new GameState();
+    gameState.setTeams(new Team[template.getTeams()]);
+    new BoardController(gameState, template);
+    return gameState;
+  }
+
+  /**
+   * @param template the map template
+   * @return a BoardController whose teams are initialized, but their pieces not placed
+   */
+  static BoardController joined(MapTemplate template) {
+    BoardController boardController = new BoardController(created(template));
+    for (int team = 0; team < template.getTeams(); team++)
+      boardController.initializeTeam(team, template);
+    return boardController;
+  }
+
+  /**
+   * @param template the map template
+   * @return a GameState using Team IDs, with all pieces placed and team 0 to move
+   */
+  static GameState placed(MapTemplate template) {
+    BoardController boardController = joined(template);
+    try {
+      boardController.initPieces(template.getPlacement());
+    } catch (TooManyPiecesException e) {
+      throw new IllegalStateException(e);
+    }
+    boardController.gameState.setCurrentTeam(0);
+    return boardController.gameState;
+  }
+
+  /**
+   * A move of team 0 onto an empty square and the move back, so benchmarks can change the board
+   * forever without changing its content.
+   *
+   * @param gameState a placed GameState
+   * @param board the GameStates board
+   * @return the move there and the move back
+   */
+  static Move[] moveAndBack(GameState gameState, PackedBoard board) {
+    for (Piece piece : gameState.getTeams()[0].getPieces()) {
+      for (int[] pos : EngineTools.getPossibleMoves(board, piece)) {
+        if (!board.isEmpty(pos[0], pos[1])) continue;
+        return new Move[] {move(piece, pos), move(piece, piece.getPosition().clone())};
+      }
+    }
+    throw new IllegalStateException("Team 0 cannot move to an empty square");
+  }
+
+  private static Move move(Piece piece, int[] newPosition) {
+    Move move = new Move();
+    move.setTeamId("0"); // ID moves carry the team index, like after NameIDChanger#putMoveIDs
+    move.setPieceId(piece.getId());
+    move.setNewPosition(newPosition);
+    return move;
+  }
+}
@@ -0,0 +1,48 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating a game: the grid with its bases and blocks. The InitialBoardCache is disabled, so every
+ * operation places the blocks from scratch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardControllerBenchmark {
+  @Param({"10", "30", "100"})
+  int gridSize;
+
+  @Param({"2", "4"})
+  int teams;
+
+  MapTemplate template;
+
+  @Setup
+  public void setUp() {
+    InitialBoardCache.configure(0);
+    template = BenchmarkBoards.template(gridSize, teams, PlacementType.symmetrical);
+  }
+
+  @Benchmark
+  public GameState create() {
+    return BenchmarkBoards.created(template);
+  }
+}
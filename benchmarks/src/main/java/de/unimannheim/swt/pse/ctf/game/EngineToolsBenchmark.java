@@ -0,0 +1,95 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Move generation and moves, the work done for every move request. The String grid versions are
+ * measured next to the PackedBoard versions the GameEngine uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineToolsBenchmark {
+  @Param({"10", "30", "100"})
+  int gridSize;
+
+  @Param({"2", "4"})
+  int teams;
+
+  GameState gameState;
+  PackedBoard board;
+  PieceRegistry registry;
+  LegalMoveTable legalMoves;
+  Move there;
+  Move back;
+
+  @Setup
+  public void setUp() {
+    gameState =
+        BenchmarkBoards.placed(BenchmarkBoards.template(gridSize, teams, PlacementType.symmetrical));
+    board = PackedBoard.of(gameState);
+    registry = new PieceRegistry(gameState, board);
+    legalMoves = new LegalMoveTable(gameState, board);
+
+    Move[] moveAndBack = BenchmarkBoards.moveAndBack(gameState, board);
+    there = moveAndBack[0];
+    back = moveAndBack[1];
+  }
+
+  @Benchmark
+  public int possibleMovesGrid() {
+    int moves = 0;
+    for (Piece piece : gameState.getTeams()[0].getPieces())
+      moves += EngineTools.getPossibleMoves(gameState, piece).size();
+    return moves;
+  }
+
+  @Benchmark
+  public int possibleMovesPacked() {
+    int moves = 0;
+    for (Piece piece : gameState.getTeams()[0].getPieces())
+      moves += EngineTools.getPossibleMoves(board, piece).size();
+    return moves;
+  }
+
+  @Benchmark
+  public PackedBoard computeMove() {
+    EngineTools.computeMove(gameState, board, registry, there);
+    EngineTools.computeMove(gameState, board, registry, back);
+    return board;
+  }
+
+  @Benchmark
+  public boolean removeMovelessTeams() {
+    return EngineTools.removeMovelessTeams(gameState, board);
+  }
+
+  /**
+   * Moves before the check, so the LegalMoveTable has to rescan the changed squares like after a
+   * real move. Includes the cost of {@link #computeMove()}.
+   */
+  @Benchmark
+  public boolean removeMovelessTeamsIndexed() {
+    EngineTools.computeMove(gameState, board, registry, there);
+    EngineTools.computeMove(gameState, board, registry, back);
+    return EngineTools.removeMovelessTeams(gameState, board, legalMoves);
+  }
+}
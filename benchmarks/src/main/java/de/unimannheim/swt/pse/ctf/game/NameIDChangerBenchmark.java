@@ -0,0 +1,80 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating the GameState with team names, done after every move. The full deep copy of the
+ * NameIDChanger is measured next to the NamedStatePublisher the GameEngine uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameIDChangerBenchmark {
+  @Param({"10", "30", "100"})
+  int gridSize;
+
+  @Param({"2", "4"})
+  int teams;
+
+  GameState gameState;
+  NameIDChanger changer;
+  PackedBoard board;
+  PieceRegistry registry;
+  NamedStatePublisher publisher;
+  Move there;
+  Move back;
+
+  @Setup
+  public void setUp() {
+    gameState =
+        BenchmarkBoards.placed(BenchmarkBoards.template(gridSize, teams, PlacementType.symmetrical));
+    Map<Integer, String> integerToTeam = new HashMap<Integer, String>();
+    Map<String, Integer> teamToInteger = new HashMap<String, Integer>();
+    for (int team = 0; team < teams; team++) {
+      integerToTeam.put(team, "team" + team);
+      teamToInteger.put("team" + team, team);
+    }
+    changer = new NameIDChanger(integerToTeam, teamToInteger);
+    board = PackedBoard.of(gameState);
+    registry = new PieceRegistry(gameState, board);
+    publisher = new NamedStatePublisher(board, integerToTeam, teams);
+    Move[] moveAndBack = BenchmarkBoards.moveAndBack(gameState, board);
+    there = moveAndBack[0];
+    back = moveAndBack[1];
+  }
+
+  @Benchmark
+  public GameState putGameStateNames() {
+    return changer.putGameStateNames(gameState);
+  }
+
+  /**
+   * Moves before publishing, so the rows of the two changed squares get rendered again like after
+   * a real move. Includes the cost of {@link EngineToolsBenchmark#computeMove()}.
+   */
+  @Benchmark
+  public GameState publish() {
+    EngineTools.computeMove(gameState, board, registry, there);
+    EngineTools.computeMove(gameState, board, registry, back);
+    return publisher.publish(gameState);
+  }
+}
@@ -0,0 +1,61 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyPiecesException;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Placing the pieces once all teams joined, for every PlacementType. The InitialBoardCache is
+ * disabled, so every placement is computed from scratch. Spaced out and defensive placement run
+ * until the ctf.placement.time-budget default of 10 seconds at most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PiecePlacerBenchmark {
+  @Param({"10", "20", "30"})
+  int gridSize;
+
+  @Param({"2", "4"})
+  int teams;
+
+  @Param({"symmetrical", "spaced_out", "defensive"})
+  PlacementType placement;
+
+  MapTemplate template;
+  BoardController joined;
+
+  @Setup
+  public void setUpTemplate() {
+    InitialBoardCache.configure(0);
+    template = BenchmarkBoards.template(gridSize, teams, placement);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpTeams() {
+    joined = BenchmarkBoards.joined(template);
+  }
+
+  @Benchmark
+  public GameState placePieces() throws TooManyPiecesException {
+    joined.initPieces(placement);
+    return joined.gameState;
+  }
+}
@@ -1,7 +1,14 @@
 package de.unimannheim.swt.pse.ctf;
 
+import de.unimannheim.swt.pse.ctf.controller.StateEvents;
 import de.unimannheim.swt.pse.ctf.game.Game;
 import de.unimannheim.swt.pse.ctf.game.GameEngine;
+import de.unimannheim.swt.pse.ctf.game.GameThreads;
+import de.unimannheim.swt.pse.ctf.game.InitialBoardCache;
+import de.unimannheim.swt.pse.ctf.game.PlacementOptimizer;
+import de.unimannheim.swt.pse.ctf.game.PlacementPool;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -9,6 +16,33 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class CtfApplication {
 
+  /**
+   * Configures the games background threads. With `spring.threads.virtual.enabled` (Java 21
+   * profile) timers run on virtual threads like the requests, piece placement runs on the shared
+   * {@link PlacementPool} with the `ctf.placement.*` limits. State events are written by
+   * `ctf.events.threads` platform threads, or virtual threads.
+   *
+   * @param virtualThreads value of spring.threads.virtual.enabled
+   * @param placementParallelism maximum number of placement threads, 0 for the number of cores
+   * @param placementTimeBudget maximum time to optimize one placement
+   * @param placementOptimizer name of the {@link PlacementOptimizer}
+   * @param placementCacheSize number of templates whose initial board is cached
+   * @param eventThreads number of threads writing state events, 0 for the number of cores
+   */
+  public CtfApplication(
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+      @Value("${ctf.placement.parallelism:0}") int placementParallelism,
+      @Value("${ctf.placement.time-budget:10s}") Duration placementTimeBudget,
+      @Value("${ctf.placement.optimizer:hill-climbing}") String placementOptimizer,
+      @Value("${ctf.placement.cache-size:64}") int placementCacheSize,
+      @Value("${ctf.events.threads:0}") int eventThreads) {
+    GameThreads.setVirtual(virtualThreads);
+    PlacementPool.configure(
+        placementParallelism, placementTimeBudget, PlacementOptimizer.of(placementOptimizer));
+    InitialBoardCache.configure(placementCacheSize);
+    StateEvents.configure(eventThreads);
+  }
+
   public static void main(String[] args) {
     SpringApplication.run(CtfApplication.class, args);
   }
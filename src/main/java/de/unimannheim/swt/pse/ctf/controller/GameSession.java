@@ -1,14 +1,14 @@
 package de.unimannheim.swt.pse.ctf.controller;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
 import de.unimannheim.swt.pse.ctf.game.Game;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.StringUtils;
 
 /**
- * A simple class that manages a game session via a synchronized {@link Map}.
+ * A simple class that manages a game session via a concurrent {@link Map}.
  *
  * <p>Contains simple check for anti-cheat.
  */
@@ -16,16 +16,76 @@ public class GameSession {
 
   private final Game game;
   private final Map<String, String> teamSecrets;
+  private final StateCache stateCache;
+  private final StateEvents stateEvents;
+  private volatile long lastAccess;
+  private volatile long finishedAt;
 
-  public GameSession(Game game) {
+  /**
+   * @param game the sessions game
+   * @param stateWriter writer for the cached states, see {@link StateCache#writer}
+   */
+  public GameSession(Game game, ObjectWriter stateWriter) {
     this.game = game;
-    this.teamSecrets = Collections.synchronizedMap(new HashMap<>());
+    this.teamSecrets = new ConcurrentHashMap<>();
+    this.stateCache = new StateCache(stateWriter);
+    this.stateEvents = new StateEvents(game);
+    this.lastAccess = System.currentTimeMillis();
   }
 
   public Game getGame() {
     return game;
   }
 
+  public StateCache getStateCache() {
+    return stateCache;
+  }
+
+  public StateEvents getStateEvents() {
+    return stateEvents;
+  }
+
+  /**
+   * @return time of the last request to this session in milliseconds
+   */
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  /**
+   * Marks the session as used by a request.
+   *
+   * @param now current time in milliseconds
+   */
+  public void touch(long now) {
+    this.lastAccess = now;
+  }
+
+  /**
+   * Returns when the game was first seen as over by the {@link GameSessionStore}.
+   *
+   * @param now current time in milliseconds, remembered if the game just ended
+   * @return time the game was first seen as over, 0 if it is still running
+   */
+  public long getFinishedAt(long now) {
+    if (finishedAt == 0 && game.isGameOver()) {
+      finishedAt = now;
+    }
+    return finishedAt;
+  }
+
+  /** Completes the event streams and stops the games timers, used when the session gets removed. */
+  public void close() {
+    this.stateEvents.close();
+    if (game instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) game).close();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
   /**
    * Create team secret
    *
@@ -1,5 +1,7 @@
 package de.unimannheim.swt.pse.ctf.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import de.unimannheim.swt.pse.ctf.CtfApplication;
 import de.unimannheim.swt.pse.ctf.controller.data.GameSessionRequest;
 import de.unimannheim.swt.pse.ctf.controller.data.GameSessionResponse;
@@ -7,29 +9,35 @@ import de.unimannheim.swt.pse.ctf.controller.data.GiveupRequest;
 import de.unimannheim.swt.pse.ctf.controller.data.JoinGameRequest;
 import de.unimannheim.swt.pse.ctf.controller.data.JoinGameResponse;
 import de.unimannheim.swt.pse.ctf.controller.data.MoveRequest;
+import de.unimannheim.swt.pse.ctf.controller.data.StateEvent;
 import de.unimannheim.swt.pse.ctf.game.Game;
+import de.unimannheim.swt.pse.ctf.game.VersionedGame;
 import de.unimannheim.swt.pse.ctf.game.exceptions.ForbiddenMove;
 import de.unimannheim.swt.pse.ctf.game.exceptions.GameSessionNotFound;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta;
 import de.unimannheim.swt.pse.ctf.game.state.Move;
 import de.unimannheim.swt.pse.ctf.game.state.Team;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * This controller class defines several RESTful endpoints for managing game sessions / states:
@@ -40,6 +48,12 @@ import org.springframework.web.bind.annotation.RestController;
  *   <li>POST `/api/gamesession/{sessionId}/join` for a new team to join the game session,
  *   <li>GET `/api/gamesession/{sessionId}/state` for retrieving the current game state for a
  *       specific game session,
+ *   <li>GET `/api/gamesession/{sessionId}/state?since={version}` for retrieving the changes to
+ *       the game state since an older version,
+ *   <li>GET `/api/gamesession/{sessionId}/events` for subscribing to state changes of a specific
+ *       game session,
+ *   <li>GET `/api/gamesession/{sessionId}/moves` for retrieving the moves the current team can
+ *       make in a specific game session,
  *   <li>POST `/api/gamesession/{sessionId}/move` for making a move request for a specific game
  *       session, and
  *   <li>POST `/api/gamesession/{sessionId}/giveup` for making a request to give up the game for a
@@ -55,10 +69,12 @@ public class GameSessionController {
 
   private static final Logger LOG = LoggerFactory.getLogger(GameSessionController.class);
 
-  private Map<String, GameSession> gameSessions;
+  private final GameSessionStore gameSessions;
+  private final ObjectWriter stateWriter;
 
-  public GameSessionController() {
-    this.gameSessions = Collections.synchronizedMap(new HashMap<>());
+  public GameSessionController(GameSessionStore gameSessions, ObjectMapper objectMapper) {
+    this.gameSessions = gameSessions;
+    this.stateWriter = StateCache.writer(objectMapper);
   }
 
   /**
@@ -75,6 +91,7 @@ public class GameSessionController {
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Game session created"),
+        @ApiResponse(responseCode = "503", description = "Too many game sessions"),
         @ApiResponse(responseCode = "500", description = "Unknown error occurred")
       })
   @PostMapping("/gamesession")
@@ -84,12 +101,15 @@ public class GameSessionController {
     // game session ID
     String sessionId = UUID.randomUUID().toString();
 
+    // reject the request before the game gets created, if there is no room for it
+    this.gameSessions.checkCapacity();
+
     // initialize new game engine with initial state
     Game game = CtfApplication.createGameEngine();
     game.create(request.getTemplate());
 
     // store game state
-    this.gameSessions.put(sessionId, new GameSession(game));
+    this.gameSessions.add(sessionId, new GameSession(game, this.stateWriter));
 
     // create response
     GameSessionResponse sessionResponse = createGameSessionResponse(sessionId, game);
@@ -101,6 +121,9 @@ public class GameSessionController {
    * You can retrieve the current session for a specific game session by sending a `GET` request to
    * the `/api/gamesession/{sessionId}` endpoint with the session ID.
    *
+   * <p>Finished games are archived after a while, their session can still be retrieved here, but
+   * their state cannot.
+   *
    * @param sessionId unique session id
    * @return GameSessionResponse
    */
@@ -116,6 +139,11 @@ public class GameSessionController {
       @Parameter(description = "existing game session id") @PathVariable String sessionId) {
     LOG.info("getGameSession request");
 
+    GameSessionResponse archived = this.gameSessions.getArchived(sessionId);
+    if (archived != null) {
+      return archived;
+    }
+
     Game game = this.getGame(sessionId);
 
     // create response
@@ -128,24 +156,127 @@ public class GameSessionController {
    * You can retrieve the current game state for a specific game session by sending a `GET` request
    * to the `/api/gamesession/{sessionId}/state` endpoint with the session ID.
    *
+   * <p>The state is serialized once per change and returned with an ETag. Sending the ETag back as
+   * `If-None-Match` returns 304 (Not Modified) while the state did not change.
+   *
    * @param sessionId unique session id
    * @return GameState
    */
   @Operation(summary = "Get the current game state")
   @ApiResponses(
       value = {
-        @ApiResponse(responseCode = "200", description = "Game state returned"),
+        @ApiResponse(
+            responseCode = "200",
+            description = "Game state returned",
+            content = @Content(schema = @Schema(implementation = GameState.class))),
+        @ApiResponse(responseCode = "304", description = "Game state not modified"),
         @ApiResponse(responseCode = "404", description = "Game session not found"),
         @ApiResponse(responseCode = "500", description = "Unknown error occurred")
       })
   @GetMapping("/gamesession/{sessionId}/state")
-  public GameState getGameState(
+  public ResponseEntity<byte[]> getGameState(
       @Parameter(description = "existing game session id") @PathVariable String sessionId) {
     LOG.info("getGameState request");
 
+    GameSession gameSession = this.findGameSession(sessionId);
+    StateCache.Entry state = gameSession.getStateCache().get(gameSession.getGame());
+
+    // a matching If-None-Match header gets answered with 304 by Spring, as the ETag is set
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+    if (state.getETag() != null) {
+      response.eTag(state.getETag());
+    }
+    return response.body(state.getJson());
+  }
+
+  /**
+   * Clients which already got a state can request only the changes since its version by sending a
+   * `GET` request to `/api/gamesession/{sessionId}/state?since={version}`. The version is the
+   * ETag of the state or the version of a state event. If the version is too old, the response
+   * contains the full state instead of the changes.
+   *
+   * @param sessionId unique session id
+   * @param since version of the state the client got
+   * @return GameStateDelta
+   */
+  @Operation(summary = "Get the changes to the game state since a version")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Changes or full game state returned"),
+        @ApiResponse(responseCode = "404", description = "Game session not found"),
+        @ApiResponse(responseCode = "500", description = "Unknown error occurred")
+      })
+  @GetMapping(value = "/gamesession/{sessionId}/state", params = "since")
+  public GameStateDelta getGameStateDelta(
+      @Parameter(description = "existing game session id") @PathVariable String sessionId,
+      @Parameter(description = "version of the state the client got") @RequestParam long since) {
+    LOG.info("getGameStateDelta request");
+
     Game game = this.getGame(sessionId);
+    if (game instanceof VersionedGame) {
+      return ((VersionedGame) game).getStateDelta(since);
+    }
+
+    GameState state = game.getCurrentGameState();
+    GameStateDelta delta = new GameStateDelta();
+    delta.setSince(since);
+    delta.setVersion(-1);
+    delta.setFull(true);
+    delta.setState(state);
+    delta.setCurrentTeam(state.getCurrentTeam());
+    delta.setLastMove(state.getLastMove());
+    return delta;
+  }
+
+  /**
+   * Instead of polling the state, clients can subscribe to state changes by sending a `GET`
+   * request to the `/api/gamesession/{sessionId}/events` endpoint. The response is a stream of
+   * server-sent `state` events, one per state change, each carrying the new state version.
+   *
+   * @param sessionId unique session id
+   * @return stream of {@link StateEvent}s
+   */
+  @Operation(summary = "Subscribe to game state changes")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "404", description = "Game session not found"),
+        @ApiResponse(responseCode = "500", description = "Unknown error occurred")
+      })
+  @GetMapping(value = "/gamesession/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter getGameStateEvents(
+      @Parameter(description = "existing game session id") @PathVariable String sessionId) {
+    LOG.info("getGameStateEvents request");
 
-    return game.getCurrentGameState();
+    return this.findGameSession(sessionId).getStateEvents().subscribe();
+  }
+
+  /**
+   * Instead of trying moves until one is valid, clients can retrieve every move the current team
+   * can make by sending a `GET` request to the `/api/gamesession/{sessionId}/moves` endpoint. The
+   * moves are listed once per state change, a move from this list is always valid until the state
+   * changes.
+   *
+   * @param sessionId unique session id
+   * @return the current teams moves, empty if the game is not running
+   */
+  @Operation(summary = "Get the moves the current team can make")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Legal moves returned"),
+        @ApiResponse(responseCode = "404", description = "Game session not found"),
+        @ApiResponse(responseCode = "500", description = "Unknown error occurred")
+      })
+  @GetMapping("/gamesession/{sessionId}/moves")
+  public Move[] getLegalMoves(
+      @Parameter(description = "existing game session id") @PathVariable String sessionId) {
+    LOG.info("getLegalMoves request");
+
+    Game game = this.getGame(sessionId);
+    if (game instanceof VersionedGame) {
+      return ((VersionedGame) game).getLegalMoves();
+    }
+    return new Move[0];
   }
 
   /**
@@ -170,10 +301,7 @@ public class GameSessionController {
       @RequestBody JoinGameRequest joinRequest) {
     LOG.info("joinGame request");
 
-    GameSession gameSession = this.gameSessions.get(sessionId);
-    if (gameSession == null) {
-      throw new GameSessionNotFound();
-    }
+    GameSession gameSession = this.findGameSession(sessionId);
 
     Team team = gameSession.getGame().joinGame(joinRequest.getTeamId());
 
@@ -217,10 +345,7 @@ public class GameSessionController {
       @RequestBody MoveRequest moveRequest) {
     LOG.info("makeMove request");
 
-    GameSession gameSession = this.gameSessions.get(sessionId);
-    if (gameSession == null) {
-      throw new GameSessionNotFound();
-    }
+    GameSession gameSession = this.findGameSession(sessionId);
 
     // allowed to make this move?
     if (!gameSession.isAllowed(moveRequest.getTeamId(), moveRequest.getTeamSecret())) {
@@ -261,10 +386,7 @@ public class GameSessionController {
       @RequestBody GiveupRequest giveupRequest) {
     LOG.info("giveUp request");
 
-    GameSession gameSession = this.gameSessions.get(sessionId);
-    if (gameSession == null) {
-      throw new GameSessionNotFound();
-    }
+    GameSession gameSession = this.findGameSession(sessionId);
 
     // allowed to make this move?
     if (!gameSession.isAllowed(giveupRequest.getTeamId(), giveupRequest.getTeamSecret())) {
@@ -294,11 +416,10 @@ public class GameSessionController {
       @Parameter(description = "existing game session id") @PathVariable String sessionId) {
     LOG.info("deleteGameSession request");
 
-    if (!this.gameSessions.containsKey(sessionId)) {
+    GameSession gameSession = this.gameSessions.remove(sessionId);
+    if (gameSession == null) {
       throw new GameSessionNotFound();
     }
-
-    this.gameSessions.remove(sessionId);
   }
 
   /**
@@ -308,12 +429,22 @@ public class GameSessionController {
    * @return
    */
   private Game getGame(String sessionId) {
+    return this.findGameSession(sessionId).getGame();
+  }
+
+  /**
+   * Helper method to get a {@link GameSession}.
+   *
+   * @param sessionId
+   * @return
+   */
+  private GameSession findGameSession(String sessionId) {
     GameSession gameSession = this.gameSessions.get(sessionId);
     if (gameSession == null) {
       throw new GameSessionNotFound();
     }
 
-    return gameSession.getGame();
+    return gameSession;
   }
 
   /**
@@ -323,7 +454,7 @@ public class GameSessionController {
    * @param game {@link Game}
    * @return GameSessionResponse
    */
-  private GameSessionResponse createGameSessionResponse(String sessionId, Game game) {
+  static GameSessionResponse createGameSessionResponse(String sessionId, Game game) {
     GameSessionResponse sessionResponse = new GameSessionResponse();
     sessionResponse.setId(sessionId);
     sessionResponse.setGameStarted(game.getStartedDate());
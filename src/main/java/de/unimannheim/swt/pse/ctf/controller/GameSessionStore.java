@@ -0,0 +1,205 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import de.unimannheim.swt.pse.ctf.controller.data.GameSessionResponse;
+import de.unimannheim.swt.pse.ctf.game.GameScheduler;
+import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyGameSessions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the game sessions of the {@link GameSessionController} and removes the ones nobody needs
+ * anymore, so finished or abandoned games do not stay in memory.
+ *
+ * <p>A periodic sweep on the {@link GameScheduler}
+ *
+ * <ul>
+ *   <li>archives finished games some time after they ended, keeping only their {@link
+ *       GameSessionResponse} in a bounded archive, and
+ *   <li>removes sessions which got no request for a while, archiving them if they are finished.
+ * </ul>
+ *
+ * New sessions are rejected if the maximum number of sessions is reached even after a sweep.
+ * Removed sessions get closed, which completes their event streams and stops their timers, so
+ * nothing references the game anymore.
+ *
+ * <p>Sessions are held in a {@link ConcurrentHashMap}, so looking up one session never waits for
+ * requests to other sessions. Changes to a game are ordered by the game itself.
+ *
+ * <p>Configured with the `ctf.sessions.*` properties, see application.properties.
+ */
+@Component
+public class GameSessionStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GameSessionStore.class);
+
+  private final int maxSessions;
+  private final long idleTimeoutMillis;
+  private final long finishedTtlMillis;
+  private final Duration sweepInterval;
+  private final Map<String, GameSession> sessions;
+  private final Map<String, GameSessionResponse> archive;
+  private ScheduledFuture<?> sweeper;
+
+  /**
+   * @param maxSessions maximum number of sessions held at once
+   * @param idleTimeout sessions without requests for this long get removed
+   * @param finishedTtl finished games get archived this long after they ended
+   * @param archiveSize maximum number of archived games, the oldest get dropped
+   * @param sweepInterval time between two sweeps
+   */
+  public GameSessionStore(
+      @Value("${ctf.sessions.max:1000}") int maxSessions,
+      @Value("${ctf.sessions.idle-timeout:1h}") Duration idleTimeout,
+      @Value("${ctf.sessions.finished-ttl:5m}") Duration finishedTtl,
+      @Value("${ctf.sessions.archive-size:1000}") int archiveSize,
+      @Value("${ctf.sessions.sweep-interval:30s}") Duration sweepInterval) {
+    this.maxSessions = maxSessions;
+    this.idleTimeoutMillis = idleTimeout.toMillis();
+    this.finishedTtlMillis = finishedTtl.toMillis();
+    this.sweepInterval = sweepInterval;
+    this.sessions = new ConcurrentHashMap<>();
+    this.archive =
+        Collections.synchronizedMap(
+            new LinkedHashMap<String, GameSessionResponse>() {
+              private static final long serialVersionUID = 1L;
+
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, GameSessionResponse> eldest) {
+                return size() > archiveSize;
+              }
+            });
+  }
+
+  /** Starts the periodic sweep. */
+  @PostConstruct
+  public void start() {
+    this.sweeper = GameScheduler.scheduleAtFixedRate(this::sweep, this.sweepInterval);
+  }
+
+  /** Stops the periodic sweep and closes all sessions. */
+  @PreDestroy
+  public void stop() {
+    GameScheduler.cancel(this.sweeper);
+    for (String sessionId : this.sessions.keySet()) {
+      remove(sessionId);
+    }
+  }
+
+  /**
+   * Checks if another session can be added, sweeping first if the maximum is reached. Called before
+   * a game gets created, so a rejected request does not pay for placing its pieces.
+   *
+   * @throws TooManyGameSessions if the maximum number of sessions is reached
+   */
+  public synchronized void checkCapacity() {
+    if (this.sessions.size() >= this.maxSessions) {
+      sweep();
+    }
+    if (this.sessions.size() >= this.maxSessions) {
+      throw new TooManyGameSessions();
+    }
+  }
+
+  /**
+   * Adds a new session. Only adding sessions is synchronized, to keep the maximum.
+   *
+   * @param sessionId unique session id
+   * @param gameSession the new session
+   * @throws TooManyGameSessions if the maximum number of sessions is reached
+   */
+  public synchronized void add(String sessionId, GameSession gameSession) {
+    checkCapacity();
+    this.sessions.put(sessionId, gameSession);
+  }
+
+  /**
+   * Returns a session and marks it as used.
+   *
+   * @param sessionId unique session id
+   * @return the session, null if there is none (anymore)
+   */
+  public GameSession get(String sessionId) {
+    GameSession gameSession = this.sessions.get(sessionId);
+    if (gameSession != null) {
+      gameSession.touch(System.currentTimeMillis());
+    }
+    return gameSession;
+  }
+
+  /**
+   * Removes and closes a session, without archiving it.
+   *
+   * @param sessionId unique session id
+   * @return the removed session, null if there is none
+   */
+  public GameSession remove(String sessionId) {
+    GameSession gameSession = this.sessions.remove(sessionId);
+    if (gameSession != null) {
+      gameSession.close();
+    }
+    return gameSession;
+  }
+
+  /**
+   * @param sessionId unique session id
+   * @return the response of an archived game, null if the game is not archived
+   */
+  public GameSessionResponse getArchived(String sessionId) {
+    return this.archive.get(sessionId);
+  }
+
+  /**
+   * @return number of active sessions
+   */
+  public int size() {
+    return this.sessions.size();
+  }
+
+  /** Archives finished and removes idle sessions. */
+  public void sweep() {
+    sweep(System.currentTimeMillis());
+  }
+
+  /**
+   * Archives finished and removes idle sessions.
+   *
+   * @param now current time in milliseconds
+   */
+  void sweep(long now) {
+    List<GameSession> closing = new ArrayList<>();
+    for (Map.Entry<String, GameSession> entry : this.sessions.entrySet()) {
+      GameSession gameSession = entry.getValue();
+      long finishedAt = gameSession.getFinishedAt(now);
+      boolean finished = finishedAt != 0 && now - finishedAt >= this.finishedTtlMillis;
+      boolean idle = now - gameSession.getLastAccess() >= this.idleTimeoutMillis;
+      if (!finished && !idle) {
+        continue;
+      }
+      // archived first, so the session can be found at any time
+      if (finishedAt != 0) {
+        this.archive.put(
+            entry.getKey(),
+            GameSessionController.createGameSessionResponse(entry.getKey(), gameSession.getGame()));
+      }
+      if (this.sessions.remove(entry.getKey(), gameSession)) {
+        closing.add(gameSession);
+      }
+    }
+    closing.forEach(GameSession::close);
+    if (!closing.isEmpty()) {
+      LOG.info("Removed {} game sessions, {} left", closing.size(), this.sessions.size());
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import de.unimannheim.swt.pse.ctf.game.Game;
+import de.unimannheim.swt.pse.ctf.game.VersionedGame;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches the serialized JSON of a game sessions current state.
+ *
+ * <p>If the game is a {@link VersionedGame}, the state is serialized once per version and every
+ * request for the same version is served the same bytes, together with an ETag built from the
+ * version. Other games get serialized on every request and have no ETag.
+ *
+ * <p>The grid of a versioned game is serialized row by row, remembering the JSON of every row. The
+ * GameEngine shares unchanged rows between its published states, so a row which is the same array
+ * as in the last serialized grid is written from its cached JSON instead of being serialized again.
+ * Serializing a new version costs about as much as the rows the move changed.
+ *
+ * <p>States are serialized with a writer built once by {@link #writer(ObjectMapper)} from the
+ * applications configured {@link ObjectMapper}, the same one Spring uses for every other response.
+ * The writer is shared by all sessions, the cache passes its rows to it as a writer attribute.
+ */
+public class StateCache {
+
+  private final ObjectWriter writer;
+  private Map<String[], String> rowJson; // The rows of the last serialized grid, guarded by this
+  private volatile Entry entry;
+
+  /**
+   * @param writer the writer created by {@link #writer(ObjectMapper)}
+   */
+  public StateCache(ObjectWriter writer) {
+    this.writer = writer;
+    this.rowJson = new IdentityHashMap<String[], String>();
+  }
+
+  /**
+   * Creates the writer the StateCaches of all sessions share. It writes the same JSON as the
+   * mapper, grids are written row by row.
+   *
+   * @param mapper the ObjectMapper Spring serializes responses with
+   * @return writer for {@link #StateCache(ObjectWriter)}
+   */
+  public static ObjectWriter writer(ObjectMapper mapper) {
+    return mapper
+        .copy()
+        .registerModule(
+            new SimpleModule().addSerializer(String[][].class, new GridSerializer(mapper)))
+        .writer();
+  }
+
+  /**
+   * Returns the serialized current state of a game.
+   *
+   * @param game the sessions {@link Game}
+   * @return serialized state with its ETag
+   */
+  public Entry get(Game game) {
+    if (!(game instanceof VersionedGame)) {
+      return new Entry(-1, null, serialize(writer, game.getCurrentGameState()));
+    }
+
+    // the version has to be read before the state, see VersionedGame#getStateVersion
+    long version = ((VersionedGame) game).getStateVersion();
+    Entry current = this.entry;
+    if (current != null && current.version == version) {
+      return current;
+    }
+    synchronized (this) {
+      current = this.entry;
+      if (current == null || current.version != version) {
+        current =
+            new Entry(version, "\"" + version + "\"", serializeRows(game.getCurrentGameState()));
+        this.entry = current;
+      }
+      return current;
+    }
+  }
+
+  /**
+   * Serializes a state, writing rows shared with the last serialized grid from their cached JSON.
+   *
+   * @param state a published state, whose rows never change
+   * @return the same JSON as the ObjectMapper writes
+   */
+  synchronized byte[] serializeRows(GameState state) {
+    return serialize(writer.withAttribute(StateCache.class, this), state);
+  }
+
+  private static byte[] serialize(ObjectWriter writer, GameState state) {
+    try {
+      return writer.writeValueAsBytes(state);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes a grid from the rowJson of the StateCache in the writer attributes and replaces them with
+   * the written rows. Without a StateCache every row gets serialized.
+   */
+  private static class GridSerializer extends StdSerializer<String[][]> {
+    private static final long serialVersionUID = 1L;
+    private final ObjectMapper mapper;
+
+    GridSerializer(ObjectMapper mapper) {
+      super(String[][].class);
+      this.mapper = mapper;
+    }
+
+    @Override
+    public void serialize(String[][] grid, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      StateCache cache = (StateCache) provider.getAttribute(StateCache.class);
+      Map<String[], String> written = new IdentityHashMap<String[], String>(grid.length * 2);
+      gen.writeStartArray(grid, grid.length);
+      for (String[] row : grid) {
+        String json = cache == null ? null : cache.rowJson.get(row);
+        if (json == null) json = mapper.writeValueAsString(row);
+        written.put(row, json);
+        gen.writeRawValue(json);
+      }
+      gen.writeEndArray();
+      if (cache != null) cache.rowJson = written;
+    }
+  }
+
+  /** A serialized state. */
+  public static class Entry {
+    private final long version;
+    private final String eTag;
+    private final byte[] json;
+
+    Entry(long version, String eTag, byte[] json) {
+      this.version = version;
+      this.eTag = eTag;
+      this.json = json;
+    }
+
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * @return quoted ETag, null if the game is not versioned
+     */
+    public String getETag() {
+      return eTag;
+    }
+
+    public byte[] getJson() {
+      return json;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import de.unimannheim.swt.pse.ctf.controller.data.StateEvent;
+import de.unimannheim.swt.pse.ctf.game.Game;
+import de.unimannheim.swt.pse.ctf.game.GameThreads;
+import de.unimannheim.swt.pse.ctf.game.VersionedGame;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the state version of a game session to its subscribers as server-sent events.
+ *
+ * <p>Every subscriber first gets the current version, then one `state` event per state change
+ * (move, give up, turn timeout, game over). The event id is the new version and the data a
+ * {@link StateEvent}, so clients only have to request the state when they get an event. After the
+ * game is over, all streams get completed. Streams time out after a few minutes, SSE clients
+ * reconnect on their own.
+ *
+ * <p>The game notifies its listeners while holding its lock, so {@link #stateChanged(long)} only
+ * remembers the new version and hands the writes to the subscribers to a separate executor. A slow
+ * client therefore never delays moves. If several versions arrive before the writes ran, only the
+ * newest one gets sent. Streams which fail or time out get removed there.
+ *
+ * <p>The writes of all sessions share a fixed pool of `ctf.events.threads` threads, so stalled
+ * clients cannot hold more threads than that. If {@link GameThreads} uses virtual threads, every
+ * write gets its own virtual thread instead. Configured with {@link #configure(int)} before the
+ * first session is created.
+ *
+ * <p>Only {@link VersionedGame}s send events, subscribers of other games only get the current
+ * version -1.
+ */
+public class StateEvents implements VersionedGame.StateListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StateEvents.class);
+  static final long TIMEOUT_MILLIS = 5 * 60 * 1000L;
+  private static int threads = Runtime.getRuntime().availableProcessors();
+  /** writes to the event streams of all sessions, at most one task per session at a time */
+  private static Executor sharedSender;
+
+  private final Game game;
+  private final Executor sender;
+  private final List<SseEmitter> emitters;
+  private final AtomicBoolean flushPending;
+  private volatile Snapshot latest;
+
+  public StateEvents(Game game) {
+    this(game, sender());
+  }
+
+  /**
+   * @param game the game to push the versions of
+   * @param sender runs the writes to the event streams
+   */
+  StateEvents(Game game, Executor sender) {
+    this.game = game;
+    this.sender = sender;
+    this.emitters = new CopyOnWriteArrayList<>();
+    this.flushPending = new AtomicBoolean();
+    this.latest = new Snapshot(-1, false);
+    if (game instanceof VersionedGame) {
+      ((VersionedGame) game).addStateListener(this);
+    }
+  }
+
+  /**
+   * Sets the number of threads writing the events of all sessions. Cannot change once the first
+   * session was created.
+   *
+   * @param threads number of platform threads, values < 1 use the number of processors, not used
+   *     with virtual threads
+   */
+  public static synchronized void configure(int threads) {
+    int newThreads = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+    if (sharedSender != null && newThreads != StateEvents.threads) {
+      LOG.warn("State event threads already started, their number stays {}", StateEvents.threads);
+    } else {
+      StateEvents.threads = newThreads;
+    }
+  }
+
+  /**
+   * @return the executor shared by all sessions, created on first use
+   */
+  private static synchronized Executor sender() {
+    if (sharedSender == null) {
+      ThreadFactory factory = GameThreads.factory("state-events-");
+      sharedSender =
+          GameThreads.isVirtual()
+              ? task -> factory.newThread(task).start()
+              : Executors.newFixedThreadPool(threads, factory);
+    }
+    return sharedSender;
+  }
+
+  /**
+   * Opens a new event stream.
+   *
+   * @return emitter which sends the state versions
+   */
+  public SseEmitter subscribe() {
+    return subscribe(new SseEmitter(TIMEOUT_MILLIS));
+  }
+
+  /**
+   * Sends the state versions to an emitter.
+   *
+   * @param emitter a new emitter
+   * @return the emitter
+   */
+  SseEmitter subscribe(SseEmitter emitter) {
+    emitter.onCompletion(() -> this.emitters.remove(emitter));
+    emitter.onTimeout(() -> this.emitters.remove(emitter));
+    emitter.onError(e -> this.emitters.remove(emitter));
+    this.emitters.add(emitter);
+
+    long version = game instanceof VersionedGame ? ((VersionedGame) game).getStateVersion() : -1;
+    boolean gameOver = game.isGameOver();
+    send(emitter, version, gameOver);
+    if (gameOver) {
+      emitter.complete();
+    }
+    return emitter;
+  }
+
+  /** Only remembers the new version, the events get sent by the sender executor. */
+  @Override
+  public void stateChanged(long version) {
+    this.latest = new Snapshot(version, game.isGameOver());
+    if (this.flushPending.compareAndSet(false, true)) {
+      this.sender.execute(this::flush);
+    }
+  }
+
+  /** Sends the newest version to all streams, runs on the sender executor. */
+  private void flush() {
+    this.flushPending.set(false);
+    Snapshot latest = this.latest;
+    for (SseEmitter emitter : this.emitters) {
+      send(emitter, latest.version, latest.gameOver);
+      if (latest.gameOver) {
+        emitter.complete();
+      }
+    }
+  }
+
+  /** Completes all streams and stops listening to the game, used when the session gets deleted. */
+  public void close() {
+    if (game instanceof VersionedGame) {
+      ((VersionedGame) game).removeStateListener(this);
+    }
+    for (SseEmitter emitter : this.emitters) {
+      emitter.complete();
+    }
+  }
+
+  private void send(SseEmitter emitter, long version, boolean gameOver) {
+    StateEvent event = new StateEvent();
+    event.setVersion(version);
+    event.setGameOver(gameOver);
+    try {
+      emitter.send(
+          SseEmitter.event()
+              .name("state")
+              .id(Long.toString(version))
+              .data(event, MediaType.APPLICATION_JSON));
+    } catch (IOException | IllegalStateException e) {
+      // client is gone, timed out or the stream already completed
+      this.emitters.remove(emitter);
+    }
+  }
+
+  /** A version and whether the game was over at that version, published together. */
+  private static final class Snapshot {
+    final long version;
+    final boolean gameOver;
+
+    Snapshot(long version, boolean gameOver) {
+      this.version = version;
+      this.gameOver = gameOver;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package de.unimannheim.swt.pse.ctf.controller.data;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** This class represents a server-sent event announcing a changed game state. */
+public class StateEvent {
+  @Schema(description = "version of the current game state, increases with every change")
+  private long version;
+
+  @Schema(description = "true if the game is over, no more events follow")
+  private boolean gameOver;
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  public void setGameOver(boolean gameOver) {
+    this.gameOver = gameOver;
+  }
+}
@@ -0,0 +1,108 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulated annealing for spaced out placement. Each step moves a random piece to a random empty
+ * square (or swaps two pieces), keeps the change if the team gets more possible moves and
+ * sometimes keeps it even if it gets less, the less often the colder it got. Unlike hill climbing
+ * it takes a fixed number of steps, so its run time only depends on the number of pieces, and it
+ * stops at the deadline with the best placement found so far.
+ */
+public class AnnealingOptimizer implements PlacementOptimizer {
+  private static final double START_TEMPERATURE = 4;
+  private static final double END_TEMPERATURE = 0.05;
+
+  private final int stepsPerPiece;
+
+  /**
+   * @param stepsPerPiece number of steps per movable piece
+   */
+  public AnnealingOptimizer(int stepsPerPiece) {
+    this.stepsPerPiece = stepsPerPiece;
+  }
+
+  @Override
+  public void optimize(
+      PackedBoard board,
+      MobilityScore score,
+      int team,
+      List<Piece> movable,
+      int[] bounds,
+      boolean swapOnly,
+      int run,
+      long deadline) {
+    if (movable.isEmpty() || swapOnly && movable.size() < 2) return;
+    Random random = new Random(board.contentHash() * 31L + run);
+    int steps = stepsPerPiece * movable.size();
+    int current = score.teamMoves(team);
+    int best = current;
+    int[][] bestPositions = positions(movable);
+
+    for (int step = 0; step < steps && System.nanoTime() - deadline < 0; step++) {
+      double temperature =
+          START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, step / (double) steps);
+      Piece piece = movable.get(random.nextInt(movable.size()));
+      int[] oldPos = piece.getPosition();
+      int[] newPos;
+      Piece other = null;
+      if (swapOnly) {
+        other = movable.get(random.nextInt(movable.size()));
+        if (other == piece) continue;
+        newPos = other.getPosition();
+      } else {
+        newPos =
+            new int[] {
+              bounds[0] + random.nextInt(bounds[1] - bounds[0] + 1),
+              bounds[2] + random.nextInt(bounds[3] - bounds[2] + 1)
+            };
+        if (!board.isEmpty(newPos[0], newPos[1])) continue;
+      }
+
+      move(board, piece, other, oldPos, newPos);
+      int candidate = score.teamMoves(team);
+      int delta = candidate - current;
+      if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+        current = candidate;
+        if (current > best) {
+          best = current;
+          bestPositions = positions(movable);
+        }
+      } else {
+        move(board, piece, other, newPos, oldPos);
+      }
+    }
+
+    if (current < best) restore(board, movable, bestPositions);
+  }
+
+  /** Moves piece from oldPos to newPos, where other is standing if it is not null. */
+  private static void move(
+      PackedBoard board, Piece piece, Piece other, int[] oldPos, int[] newPos) {
+    PlacementOptimizer.swap(board, oldPos, newPos);
+    piece.setPosition(newPos);
+    if (other != null) other.setPosition(oldPos);
+  }
+
+  private static int[][] positions(List<Piece> pieces) {
+    int[][] positions = new int[pieces.size()][];
+    for (int i = 0; i < positions.length; i++) positions[i] = pieces.get(i).getPosition();
+    return positions;
+  }
+
+  /** Puts the pieces back onto the squares they had in the best placement. */
+  private static void restore(PackedBoard board, List<Piece> pieces, int[][] positions) {
+    long[] cells = new long[pieces.size()];
+    for (int i = 0; i < cells.length; i++) {
+      int[] pos = pieces.get(i).getPosition();
+      cells[i] = board.get(pos[0], pos[1]);
+      board.setEmpty(pos[0], pos[1]);
+    }
+    for (int i = 0; i < cells.length; i++) {
+      board.set(positions[i][0], positions[i][1], cells[i]);
+      pieces.get(i).setPosition(positions[i]);
+    }
+  }
+}
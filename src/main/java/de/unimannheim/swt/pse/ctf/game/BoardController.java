@@ -1,6 +1,7 @@
 package de.unimannheim.swt.pse.ctf.game;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Random;
 import com.google.gson.Gson;
@@ -28,12 +29,25 @@ public class BoardController {
    * This constructor should be called to initialize a completely new GameState in create().
    * Initializes the Grid and places Bases and Blocks on it, 
    * Initializes new Teams() with their bases.
+   * The grid with bases and blocks gets taken from the {@link InitialBoardCache} if the template was used before.
    * 
    * @author sistumpf
    * @param gameState
    * @param template
    */
   public BoardController(GameState gameState, MapTemplate template) {
+    this(gameState, template, InitialBoardCache.fingerprint(template));
+  }
+
+  /**
+   * Like {@link #BoardController(GameState, MapTemplate)}, with the templates fingerprint already computed,
+   * so a game only serializes its template once.
+   * 
+   * @param gameState
+   * @param template
+   * @param fingerprint the templates {@link InitialBoardCache#fingerprint(MapTemplate)}
+   */
+  BoardController(GameState gameState, MapTemplate template, String fingerprint) {
     this.numberOfTeams = template.getTeams();
     this.gridSize = template.getGridSize();
     this.gameState = gameState;
@@ -42,9 +56,15 @@ public class BoardController {
     this.xPartitionsSize = partitionSizes[1];
     this.boundaries = getBoundaries();
     
+    String[][] blocked = InitialBoardCache.getBlocked(fingerprint);
+    if(blocked != null) {
+      gameState.setGrid(blocked);
+      return;
+    }
     initEmptyGrid();
     placeBases(gameState);
-    placeBlocks(template, gameState.getGrid(), template.getBlocks());
+    placeBlocks(fingerprint.hashCode(), gameState.getGrid(), template.getBlocks());
+    InitialBoardCache.putBlocked(fingerprint, gameState.getGrid());
   }
 
   /**
@@ -168,6 +188,18 @@ public class BoardController {
    * @param blocks, number of blocks to be placed
    */
   void placeBlocks(MapTemplate mt, String[][] grid, int blocks) {
+    placeBlocks(new Gson().toJson(mt).hashCode(), grid, blocks);
+  }
+
+  /**
+   * Like {@link #placeBlocks(MapTemplate, String[][], int)}, but with the hash of the templates Gson JSON,
+   * so the template only gets serialized once and not for every block.
+   *
+   * @param templateHash hash of the templates Gson JSON, used as a seed for pseudo random number generating
+   * @param grid
+   * @param blocks, number of blocks to be placed
+   */
+  void placeBlocks(int templateHash, String[][] grid, int blocks) {
     ArrayList<Integer[]> freeList = new ArrayList<Integer[]>();
     for (int i = 0; i < grid.length; i++) {
       for (int j = 0; j < grid[i].length; j++) {
@@ -178,7 +210,7 @@ public class BoardController {
     }
 
     for (; blocks > 0; blocks--) {
-      int x = seededRandom(mt, blocks, freeList.size());
+      int x = seededRandom(templateHash, blocks, freeList.size());
       grid[freeList.get(x)[0]][freeList.get(x)[1]] = "b";
       freeList.remove(x);
     }
@@ -195,7 +227,20 @@ public class BoardController {
    * @return a pseudo random number
    */
   int seededRandom(MapTemplate mt, int modifier, int upperBound) {
-    int seed = (new Gson().toJson(mt) + String.valueOf(modifier)).hashCode();
+    return seededRandom(new Gson().toJson(mt).hashCode(), modifier, upperBound);
+  }
+
+  /**
+   * Like {@link #seededRandom(MapTemplate, int, int)}, the seed gets derived from the precomputed hash
+   * of the templates Gson JSON, giving the same values without serializing the template again.
+   *
+   * @param templateHash hash of the templates Gson JSON
+   * @param modifier to get different random values with the same seed
+   * @param upperBound upper bound for returned random values, upperBound = 3 -> values 0 to 2
+   * @return a pseudo random number
+   */
+  int seededRandom(int templateHash, int modifier, int upperBound) {
+    int seed = EngineTools.extendHash(templateHash, String.valueOf(modifier));
     return new Random(seed).nextInt(upperBound);
   }
 
@@ -243,15 +288,60 @@ public class BoardController {
    * Chooses the correct method to place the pieces onto the grid.
    *
    * @author sistumpf
-   * @param gameState
-   * @param template
+   * @param placement
+   * @return true if the placement is repeatable, false if an optimization got stopped by the time budget
    * @throws TooManyPiecesException
    */
-  void initPieces(PlacementType placement) throws TooManyPiecesException {
+  boolean initPieces(PlacementType placement) throws TooManyPiecesException {
     if(!allPiecesPlacable())
       throw new TooManyPiecesException("Some pieces could not be placed, there might be too many blocks or too many pieces");
-    new PiecePlacer(gameState, this.boundaries).placePieces(placement);
-    System.gc();
+    PiecePlacer placer = new PiecePlacer(gameState, this.boundaries);
+    placer.placePieces(placement);
+    return placer.finishedInTime();
+  }
+
+  /**
+   * Like {@link #initPieces(PlacementType)}, but reuses the placement of an earlier game on the same template
+   * from the {@link InitialBoardCache}. Besides the template, the placement depends on the PlacementPools
+   * parallelism and optimizer, which the cache compares, and on the time budget. Placements stopped by the
+   * time budget differ from run to run, so they do not get cached.
+   *
+   * @param template the template this BoardControllers GameState was created with
+   * @param fingerprint the templates {@link InitialBoardCache#fingerprint(MapTemplate)}
+   * @throws TooManyPiecesException
+   */
+  void initPieces(MapTemplate template, String fingerprint) throws TooManyPiecesException {
+    String[][] placed = InitialBoardCache.getPlaced(fingerprint);
+    if(placed != null && applyPlacement(placed))
+      return;
+    if(initPieces(template.getPlacement()))
+      InitialBoardCache.putPlaced(fingerprint, gameState.getGrid());
+  }
+
+  /**
+   * Sets the grid to a placed grid and moves every piece to the square with its id.
+   *
+   * @param placed grid with bases, blocks and pieces
+   * @return false if the placed grid does not contain every piece exactly once, nothing gets changed then
+   */
+  private boolean applyPlacement(String[][] placed) {
+    HashMap<String, Piece> pieces = new HashMap<String, Piece>();
+    for(Team team : gameState.getTeams())
+      for(Piece piece : team.getPieces())
+        pieces.put(piece.getId(), piece);
+    HashMap<Piece, int[]> positions = new HashMap<Piece, int[]>();
+    for(int y=0; y<placed.length; y++)
+      for(int x=0; x<placed[y].length; x++)
+        if(placed[y][x].startsWith("p:")) {
+          Piece piece = pieces.get(placed[y][x]);
+          if(piece == null || positions.put(piece, new int[] {y,x}) != null)
+            return false;
+        }
+    if(positions.size() != pieces.size())
+      return false;
+    positions.forEach(Piece::setPosition);
+    gameState.setGrid(placed);
+    return true;
   }
 
   /**
@@ -1,9 +1,8 @@
 package de.unimannheim.swt.pse.ctf.game;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Random;
-import java.util.stream.Stream;
+import java.util.function.IntPredicate;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
 import de.unimannheim.swt.pse.ctf.game.state.Move;
 import de.unimannheim.swt.pse.ctf.game.state.Piece;
@@ -14,41 +13,112 @@ public class EngineTools extends GameUtilities {
   /**
    * A given move is made on the GameState. Only updates the Team array, the Grid and the last move.
    * Checks for removing teams are not made here.
+   * Slow path for single moves in tests and tools: a PackedBoard and PieceRegistry get built and
+   * the grid rendered on every call. Callers making many moves should keep a board and registry and
+   * use {@link #computeMove(GameState, PackedBoard, PieceRegistry, Move)}, like the GameEngine.
    *
    * @author sistumpf
    * @param gameState
    * @param move
    */
   public static void computeMove(GameState gameState, Move move) {
-    String occupant = gameState.getGrid()[move.getNewPosition()[0]][move.getNewPosition()[1]];
-    Piece picked =
-        Arrays.asList(gameState.getTeams()[gameState.getCurrentTeam()].getPieces()).stream()
-        .filter(p -> p.getId().equals(move.getPieceId()))
-        .findFirst()
-        .get();
+    PackedBoard board = PackedBoard.of(gameState);
+    computeMove(gameState, board, move);
+    gameState.setGrid(board.toGrid());
+  }
+
+  /**
+   * A given move is made on the GameState and the PackedBoard. Only updates the Team array, the
+   * board and the last move, the String grid is not touched and has to be rendered from the board.
+   * Checks for removing teams are not made here.
+   * Slow path for single moves in tests and tools, a PieceRegistry gets built on every call. Callers
+   * making many moves should keep one and use
+   * {@link #computeMove(GameState, PackedBoard, PieceRegistry, Move)}.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param move
+   */
+  public static void computeMove(GameState gameState, PackedBoard board, Move move) {
+    computeMove(gameState, board, new PieceRegistry(gameState, board), move);
+  }
+
+  /**
+   * A given move is made on the GameState and the PackedBoard, pieces get looked up and removed
+   * through the registry. The String grid is not touched and has to be rendered from the board.
+   * Checks for removing teams are not made here.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param registry the PieceRegistry belonging to gameState
+   * @param move
+   */
+  public static void computeMove(
+      GameState gameState, PackedBoard board, PieceRegistry registry, Move move) {
+    computeMove(gameState, board, registry, move, null);
+  }
+
+  /**
+   * Like {@link #computeMove(GameState, PackedBoard, PieceRegistry, Move)}, but a piece capturing
+   * a flag respawns on a square found through the games RespawnIndex.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param registry the PieceRegistry belonging to gameState
+   * @param move
+   * @param respawns the RespawnIndex listening to board, null to search the rings of the board
+   */
+  public static void computeMove(
+      GameState gameState,
+      PackedBoard board,
+      PieceRegistry registry,
+      Move move,
+      RespawnIndex respawns) {
+    computeMove(gameState, board, registry, registry.get(move.getPieceId()), move, respawns);
+  }
+
+  /**
+   * Like {@link #computeMove(GameState, PackedBoard, PieceRegistry, Move, RespawnIndex)}, for a
+   * piece the caller already looked up. The moves piece ID is not parsed again.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param registry the PieceRegistry belonging to gameState
+   * @param picked the moving piece
+   * @param move the ID move, becomes the last move
+   * @param respawns the RespawnIndex listening to board, null to search the rings of the board
+   */
+  public static void computeMove(
+      GameState gameState,
+      PackedBoard board,
+      PieceRegistry registry,
+      Piece picked,
+      Move move,
+      RespawnIndex respawns) {
+    int[] newPos = move.getNewPosition();
+    long occupant = board.get(newPos[0], newPos[1]);
     int[] oldPos = picked.getPosition();
+    long pickedCell = board.get(oldPos[0], oldPos[1]);
+
+    board.setEmpty(oldPos[0], oldPos[1]);
 
-    gameState.getGrid()[oldPos[0]][oldPos[1]] = "";
-
-    if (occupant.contains("p:")) {
-      int occupantTeam = Integer.parseInt(occupant.split(":")[1].split("_")[0]);
-      gameState.getTeams()[occupantTeam].setPieces(
-          Arrays.asList(gameState.getTeams()[occupantTeam].getPieces()).stream()
-          .filter(p -> !p.getId().equals(occupant))
-          .toArray(Piece[]::new));
-      gameState.getGrid()[move.getNewPosition()[0]][move.getNewPosition()[1]] = move.getPieceId();
-      picked.setPosition(move.getNewPosition());
-    } else if (occupant.contains("b:")) {
-      int occupantTeam = Integer.parseInt(occupant.split(":")[1].split("_")[0]);
+    if (PackedBoard.kind(occupant) == PackedBoard.PIECE) {
+      registry.remove(PackedBoard.team(occupant), PackedBoard.piece(occupant));
+      board.set(newPos[0], newPos[1], pickedCell);
+      picked.setPosition(newPos);
+    } else if (PackedBoard.kind(occupant) == PackedBoard.BASE) {
+      int occupantTeam = PackedBoard.team(occupant);
       gameState.getTeams()[occupantTeam].setFlags(
           gameState.getTeams()[occupantTeam].getFlags() - 1);
       picked.setPosition(
-          EngineTools.respawnPiecePosition(
-              gameState, gameState.getTeams()[gameState.getCurrentTeam()].getBase()));
-      gameState.getGrid()[picked.getPosition()[0]][picked.getPosition()[1]] = picked.getId();
+          respawns != null
+              ? respawns.respawnPosition(gameState.getCurrentTeam())
+              : EngineTools.respawnPiecePosition(
+                  board, gameState.getTeams()[gameState.getCurrentTeam()].getBase()));
+      board.set(picked.getPosition()[0], picked.getPosition()[1], pickedCell);
     } else {
-      gameState.getGrid()[move.getNewPosition()[0]][move.getNewPosition()[1]] = move.getPieceId();
-      picked.setPosition(move.getNewPosition());
+      board.set(newPos[0], newPos[1], pickedCell);
+      picked.setPosition(newPos);
     }
 
     gameState.setLastMove(move);
@@ -62,15 +132,57 @@ public class EngineTools extends GameUtilities {
    * @return true if only one team is left
    */
   public static boolean removeMovelessTeams(GameState gameState) {
+    PackedBoard board = PackedBoard.of(gameState);
+    boolean oneTeamLeft = removeMovelessTeams(gameState, board);
+    gameState.setGrid(board.toGrid());
+    return oneTeamLeft;
+  }
+
+  /**
+   * Starting from the current team, the following teams which cannot move get removed.
+   * Works on the PackedBoard, the String grid is not touched.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @return true if only one team is left
+   */
+  public static boolean removeMovelessTeams(GameState gameState, PackedBoard board) {
+    return removeMovelessTeams(gameState, board, t -> teamGotMovesLeft(gameState, board, t));
+  }
+
+  /**
+   * Starting from the current team, the following teams which cannot move get removed.
+   * Uses a LegalMoveTable, so only pieces affected by the last changes get their moves generated.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param legalMoves the LegalMoveTable listening to board
+   * @return true if only one team is left
+   */
+  public static boolean removeMovelessTeams(
+      GameState gameState, PackedBoard board, LegalMoveTable legalMoves) {
+    return removeMovelessTeams(gameState, board, legalMoves::teamGotMovesLeft);
+  }
+
+  /**
+   * Removes teams without flags or pieces, then the following teams which cannot move.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param gotMovesLeft checks if the team with the given index got moves left
+   * @return true if only one team is left
+   */
+  private static boolean removeMovelessTeams(
+      GameState gameState, PackedBoard board, IntPredicate gotMovesLeft) {
     for (int i = 0; i < gameState.getTeams().length; i++) {
       if(gameState.getTeams()[i] == null) continue;
-      if (gameState.getTeams()[i].getFlags() <= 0) removeTeam(gameState, i);
-      else if (gameState.getTeams()[i].getPieces().length == 0) removeTeam(gameState, i);
+      if (gameState.getTeams()[i].getFlags() <= 0) removeTeam(gameState, board, i);
+      else if (gameState.getTeams()[i].getPieces().length == 0) removeTeam(gameState, board, i);
     }
 
     while (numberOfTeamsLeft(gameState) > 1
-        && !teamGotMovesLeft(gameState, gameState.getCurrentTeam())) {
-      removeTeam(gameState, gameState.getCurrentTeam()); // removed and set to null
+        && !gotMovesLeft.test(gameState.getCurrentTeam())) {
+      removeTeam(gameState, board, gameState.getCurrentTeam()); // removed and set to null
       gameState.setCurrentTeam(getNextTeam(gameState));
     }
     return numberOfTeamsLeft(gameState) <= 1 ? true : false;
@@ -98,10 +210,22 @@ public class EngineTools extends GameUtilities {
    * @return true if the team got moves left
    */
   public static boolean teamGotMovesLeft(GameState gameState, int teamIndex) {
+    return teamGotMovesLeft(gameState, PackedBoard.of(gameState), teamIndex);
+  }
+
+  /**
+   * Checks if a team got moves left, using the PackedBoard.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param teamIndex
+   * @return true if the team got moves left
+   */
+  public static boolean teamGotMovesLeft(GameState gameState, PackedBoard board, int teamIndex) {
     if(gameState.getTeams()[teamIndex] == null)
       return false;
     for (int i = gameState.getTeams()[teamIndex].getPieces().length - 1; i >= 0; i--) {
-      if (getPossibleMoves(gameState, gameState.getTeams()[teamIndex].getPieces()[i]).size() > 0)
+      if (hasAnyMove(board, gameState.getTeams()[teamIndex].getPieces()[i]))
         return true;
     }
     return false;
@@ -162,6 +286,23 @@ public class EngineTools extends GameUtilities {
     gameState.getTeams()[team] = null;
   }
 
+  /**
+   * Removes a certain team from the GameState and its pieces and base from the PackedBoard.
+   *
+   * @param gameState
+   * @param board the PackedBoard belonging to gameState
+   * @param team
+   */
+  public static void removeTeam(GameState gameState, PackedBoard board, int team) {
+    if(gameState.getTeams()[team] == null)
+      return;
+    int[] base = gameState.getTeams()[team].getBase();
+    board.setEmpty(base[0], base[1]);
+    for (Piece p : gameState.getTeams()[team].getPieces())
+      board.setEmpty(p.getPosition()[0], p.getPosition()[1]);
+    gameState.getTeams()[team] = null;
+  }
+
   /**
    * This method should be used instead of Math.random() to generate deterministic positive pseudo
    * random values. Changing modifier changes the resulting output for the same seed.
@@ -174,12 +315,35 @@ public class EngineTools extends GameUtilities {
    * @return pseudo random value
    */
   public static int seededRandom(String[][] grid, int modifier, int upperBound, int lowerBound) {
-    StringBuilder sb = new StringBuilder();
-    Stream.of(grid).forEach(s -> Stream.of(s).forEach(ss -> sb.append(ss)));
-    int seed = sb.append(modifier).toString().hashCode();
+    int seed = extendHash(gridHash(grid), String.valueOf(modifier));
     return new Random(seed).nextInt(upperBound - lowerBound) + lowerBound;
   }
 
+  /**
+   * Hashes the grid like String.hashCode() of all its squares concatenated, without building that
+   * String. Like String.hashCode() the result is the same on every JVM.
+   *
+   * @param grid
+   * @return hash of the concatenated squares
+   */
+  public static int gridHash(String[][] grid) {
+    int hash = 0;
+    for (String[] row : grid) for (String square : row) hash = extendHash(hash, square);
+    return hash;
+  }
+
+  /**
+   * Continues a String hash, extendHash(a.hashCode(), b) == (a + b).hashCode().
+   *
+   * @param hash String.hashCode() of the first part
+   * @param append the String appended to the first part
+   * @return String.hashCode() of both parts
+   */
+  static int extendHash(int hash, String append) {
+    for (int i = 0; i < append.length(); i++) hash = 31 * hash + append.charAt(i);
+    return hash;
+  }
+
   /**
    * Returns a valid position on which a Piece can safely respawn.
    *
@@ -193,8 +357,8 @@ public class EngineTools extends GameUtilities {
     int[] yTransforms;
 
     for (int distance = 1; distance < gameState.getGrid().length; distance++) {
-      xTransforms = fillXTransformations(new int[distance * 8], distance);
-      yTransforms = fillYTransformations(new int[distance * 8], distance);
+      xTransforms = RingTable.x(distance);
+      yTransforms = RingTable.y(distance);
 
       for (int clockHand = 0; clockHand < distance * 8; clockHand++) {
         int x = basePos[1] + xTransforms[clockHand];
@@ -203,11 +367,11 @@ public class EngineTools extends GameUtilities {
         if (positionOutOfBounds(gameState.getGrid(), newPos)) continue;
 
         if (emptyField(gameState.getGrid(), newPos)) {
-          for (int i = 1, random = seededRandom(gameState.getGrid(), i, xTransforms.length, 0);
-              ;
-              i++, random = seededRandom(gameState.getGrid(), i, xTransforms.length, 0)) {
-            x = basePos[1] + xTransforms[random];
-            y = basePos[0] + yTransforms[random];
+          Random random = new Random(gridHash(gameState.getGrid()));
+          while (true) {
+            int square = random.nextInt(xTransforms.length);
+            x = basePos[1] + xTransforms[square];
+            y = basePos[0] + yTransforms[square];
             newPos = new int[] {y, x};
             if (positionOutOfBounds(gameState.getGrid(), newPos)) continue;
             if (emptyField(gameState.getGrid(), newPos)) return newPos;
@@ -218,6 +382,75 @@ public class EngineTools extends GameUtilities {
     return null;
   }
 
+  /**
+   * Returns a valid position on which a Piece can safely respawn, using the PackedBoard.
+   *
+   * @param board to check for free squares and generate a pseudo random seed
+   * @param basePos the position of the base of the Piece that gets respawned
+   * @return valid position to respawn a piece on, null if the board is full
+   */
+  public static int[] respawnPiecePosition(PackedBoard board, int[] basePos) {
+    return respawnPiecePosition(board, basePos, new Random(board.contentHash()));
+  }
+
+  /**
+   * Returns a valid position on which a Piece can safely respawn, using the PackedBoard. The
+   * square is drawn uniformly from the free squares of the nearest ring around the base which has
+   * free squares.
+   *
+   * @param board to check for free squares
+   * @param basePos the position of the base of the Piece that gets respawned
+   * @param random seeded random stream, for example the one of the game
+   * @return valid position to respawn a piece on, null if the board is full
+   */
+  public static int[] respawnPiecePosition(PackedBoard board, int[] basePos, Random random) {
+    for (int distance = 1; distance < board.getRows(); distance++) {
+      int free = freeOnRing(board, basePos, distance);
+      if (free > 0) return freeOnRing(board, basePos, distance, random.nextInt(free));
+    }
+    return null;
+  }
+
+  /**
+   * Counts the free squares on the ring at a distance around a center.
+   *
+   * @param board
+   * @param center {y, x} position in the middle of the ring
+   * @param distance distance of the ring to the center, at least 1
+   * @return number of squares on the ring which are inside the board and empty
+   */
+  static int freeOnRing(PackedBoard board, int[] center, int distance) {
+    int[] ys = RingTable.y(distance);
+    int[] xs = RingTable.x(distance);
+    int free = 0;
+    for (int i = 0; i < ys.length; i++) {
+      int y = center[0] + ys[i];
+      int x = center[1] + xs[i];
+      if (board.inBounds(y, x) && board.isEmpty(y, x)) free++;
+    }
+    return free;
+  }
+
+  /**
+   * Returns a free square on the ring at a distance around a center.
+   *
+   * @param board
+   * @param center {y, x} position in the middle of the ring
+   * @param distance distance of the ring to the center, at least 1
+   * @param n index of the free square, counted clockwise from the top left corner
+   * @return the n-th free square, null if the ring has less free squares
+   */
+  static int[] freeOnRing(PackedBoard board, int[] center, int distance, int n) {
+    int[] ys = RingTable.y(distance);
+    int[] xs = RingTable.x(distance);
+    for (int i = 0; i < ys.length; i++) {
+      int y = center[0] + ys[i];
+      int x = center[1] + xs[i];
+      if (board.inBounds(y, x) && board.isEmpty(y, x) && n-- == 0) return new int[] {y, x};
+    }
+    return null;
+  }
+
   /**
    * Given a Piece and a GameState containing the Piece, an ArrayList with all valid locations the
    * Piece can walk on is returned. The ArrayList contains int[2] values, representing a (y,x)
@@ -256,6 +489,88 @@ public class EngineTools extends GameUtilities {
     return possibleMoves;
   }
 
+  /**
+   * Given a Piece and the PackedBoard it stands on, an ArrayList with all valid locations the
+   * Piece can walk on is returned. The ArrayList contains int[2] values, representing a (y,x)
+   * location on the grid. The Pieces team is taken from the board, not from the current team.
+   * Use {@link #generateMoves(PackedBoard, Piece, int[])} if the moves get generated often.
+   *
+   * @param board
+   * @param piece
+   * @return ArrayList<int[]> that contains all valid positions a piece could move to
+   */
+  public static ArrayList<int[]> getPossibleMoves(PackedBoard board, Piece piece) {
+    int[] buffer = new int[moveBufferSize(board)];
+    int moves = generateMoves(board, piece, buffer);
+    ArrayList<int[]> possibleMoves = new ArrayList<int[]>(moves);
+    for (int i = 0; i < moves; i++)
+      possibleMoves.add(new int[] {moveY(buffer[i]), moveX(buffer[i])});
+    return possibleMoves;
+  }
+
+  /**
+   * Writes all positions a Piece can walk on into a reusable buffer, nothing gets allocated.
+   * The positions are encoded by {@link #encodeMove(int, int)}, they can be decoded with
+   * {@link #moveY(int)} and {@link #moveX(int)}.
+   *
+   * @param board the PackedBoard the piece stands on
+   * @param piece
+   * @param buffer at least {@link #moveBufferSize(PackedBoard)} big
+   * @return number of positions written to buffer
+   */
+  public static int generateMoves(PackedBoard board, Piece piece, int[] buffer) {
+    try {
+      return scanMoves(board, piece, buffer, false);
+    } catch (InvalidShapeException e) {
+      e.printStackTrace();
+      return 0;
+    }
+  }
+
+  /**
+   * Counts all positions a Piece can walk on, without allocating anything.
+   *
+   * @param board the PackedBoard the piece stands on
+   * @param piece
+   * @return number of possible moves
+   */
+  public static int countMoves(PackedBoard board, Piece piece) {
+    try {
+      return scanMoves(board, piece, null, false);
+    } catch (InvalidShapeException e) {
+      e.printStackTrace();
+      return 0;
+    }
+  }
+
+  /**
+   * Checks if a Piece can make any move, the move generation stops at the first valid move.
+   *
+   * @param board the PackedBoard the piece stands on
+   * @param piece
+   * @return true if the piece got at least one move
+   */
+  public static boolean hasAnyMove(PackedBoard board, Piece piece) {
+    try {
+      return scanMoves(board, piece, null, true) > 0;
+    } catch (InvalidShapeException e) {
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Returns how big a buffer for {@link #generateMoves(PackedBoard, Piece, int[])} must be, so any
+   * piece on the board fits into it. A piece can walk at most over the longer board side into 8
+   * directions, or onto the 16 squares of its shape.
+   *
+   * @param board
+   * @return the minimum buffer size
+   */
+  public static int moveBufferSize(PackedBoard board) {
+    return Math.max(16, 8 * Math.max(board.getRows(), board.getCols()));
+  }
+
   /**
    * Deep copies a GameState
    *
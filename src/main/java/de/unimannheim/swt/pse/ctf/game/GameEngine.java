@@ -4,13 +4,18 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
@@ -21,17 +26,24 @@ import de.unimannheim.swt.pse.ctf.game.exceptions.NoMoreTeamSlots;
 import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyPiecesException;
 import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta;
 import de.unimannheim.swt.pse.ctf.game.state.Move;
 import de.unimannheim.swt.pse.ctf.game.state.Piece;
 import de.unimannheim.swt.pse.ctf.game.state.Team;
 import javafx.scene.paint.Color;
 
 /**
- * Implementation of the {@link Game} interface from Team CFP14
+ * Implementation of the {@link Game} interface from Team CFP14.
+ * Also implements {@link VersionedGame}, so the controller can cache and push state changes,
+ * and AutoCloseable, so evicted sessions stop their timers.
+ *
+ * <p>Everything changing the state (joins, moves, give ups and timeouts) runs under one lock per
+ * game, so changes are strictly ordered. Reading the state does not lock once the game started,
+ * as the published named GameState is never changed afterwards.
  *
  * @author sistumpf and rsyed
  */
-public class GameEngine implements Game {
+public class GameEngine implements VersionedGame, AutoCloseable {
 
   // **************************************************
   // Fields
@@ -41,12 +53,25 @@ public class GameEngine implements Game {
   // Required by GameEngine
   // **************************************************
   private GameState gameState; // MAIN Data Store for GameEngine
-  private Date startedDate = null;
-  private Date endDate;
-  private boolean weDoneZo; // Setting this to true signals End game
+  private PackedBoard board; // Primitive grid used for move generation, source of gameState.grid
+  private int[] moveBuffer; // Reused by getLegalMoves for reading moves out of legalMoveTable
+  private LegalMoveTable legalMoveTable; // Squares every piece can move to, updated through board changes
+  private PieceRegistry pieces; // Finds pieces by ID or position, updated on captures
+  private RespawnIndex respawns; // Free squares around the bases, seeded from the initial board
+  private NamedStatePublisher publisher; // Creates nameState, sharing everything unchanged
+  private final AtomicLong stateVersion = new AtomicLong(); // Increased on every state change
+  private final List<StateListener> stateListeners = new CopyOnWriteArrayList<StateListener>();
+  private final StateHistory history = new StateHistory(64); // Published states for deltas
+  private final ReentrantLock lock = new ReentrantLock(); // Orders joins, moves and timeouts
+  private volatile Date startedDate = null;
+  private volatile Date endDate;
+  private volatile boolean weDoneZo; // Setting this to true signals End game
   private Clock currentTime;
+  private final Clock baseClock; // Becomes currentTime in time limited games
+  private final BiFunction<Runnable, Duration, ScheduledFuture<?>> scheduler; // GameScheduler::schedule
   private Map<Integer, String> integerToTeam;
   private Map<String, Integer> teamToInteger;
+  private NameIDChanger names; // Translates team names and piece IDs at the API edge
   private Random random;
 
   // **************************************************
@@ -57,6 +82,7 @@ public class GameEngine implements Game {
   // Nice to haves
   // **************************************************
   private MapTemplate copyOfTemplate; // Saves a copy of the template
+  private String templateFingerprint; // Identifies the template in the InitialBoardCache
   private static final Logger LOG = LoggerFactory.getLogger(GameEngine.class);
 
   // **************************************************
@@ -73,12 +99,33 @@ public class GameEngine implements Game {
   private Duration totalGameTime;
   private Clock turnEndsBy;
   private Duration turnTime;
+  private ScheduledFuture<?> gameTimeout; // Ends a time limited game, scheduled on GameScheduler
+  private ScheduledFuture<?> turnTimeout; // Ends the current turn, scheduled on GameScheduler
+  private long turnGeneration; // Increased for every scheduled turn end, older ones are stale
   private int graceTime = 1; // Time added to be fair for processing delays
-  private GameState nameState;
+  private volatile GameState nameState;
+  private Move[] legalMoves; // The current teams moves with Team Names, for legalMovesVersion
+  private long legalMovesVersion = -1;
 
   // **************************************************
   // END of Alt Mode Data
   // **************************************************
+
+  public GameEngine() {
+    this(Clock.systemDefaultZone(), GameScheduler::schedule);
+  }
+
+  /**
+   * Creates a GameEngine with its own clock and scheduler, so tests can drive the timeouts.
+   *
+   * @param baseClock clock of the time limited game modes
+   * @param scheduler runs a task after a delay, like {@link GameScheduler#schedule}
+   */
+  GameEngine(Clock baseClock, BiFunction<Runnable, Duration, ScheduledFuture<?>> scheduler) {
+    this.baseClock = baseClock;
+    this.scheduler = scheduler;
+  }
+
   /**
    * Method creates a game based on the MapTemplate given to it For logic see design and flow
    * documents
@@ -91,16 +138,19 @@ public class GameEngine implements Game {
     this.copyOfTemplate = template; // Template Copy Box
     this.integerToTeam = Collections.synchronizedMap(new LinkedHashMap<>());
     this.teamToInteger = Collections.synchronizedMap(new LinkedHashMap<>());
+    this.names = new NameIDChanger(integerToTeam, teamToInteger);
     this.weDoneZo = false;
     random = new Random();
     gameState = new GameState();
     gameState.setTeams(new Team[template.getTeams()]);
 
     // inits the grid with blocks and bases
-    new BoardController(gameState, template);
+    this.templateFingerprint = InitialBoardCache.fingerprint(template);
+    new BoardController(gameState, template, templateFingerprint);
     // Inits Alt Game mode support
     initAltGameModeLogic(template);
 
+    stateChanged();
     return gameState;
   }
 
@@ -120,20 +170,26 @@ public class GameEngine implements Game {
    */
   @Override
   public Team joinGame(String teamId) {
-    if (teamToInteger.containsKey(teamId) || getRemainingTeamSlots() == 0) {
-      throw new NoMoreTeamSlots();
+    lock.lock();
+    try {
+      if (teamToInteger.containsKey(teamId) || getRemainingTeamSlots() == 0) {
+        throw new NoMoreTeamSlots();
+      }
+      int slot = EngineTools.getNextEmptyTeamSlot(this.gameState);
+      Team tempTeam = new BoardController(this.gameState).initializeTeam(slot, copyOfTemplate);
+      // Method above sets Flags, Pieces in the Team object, which is already a part of this.gameState
+
+      teamToInteger.put(teamId, slot);
+      integerToTeam.put(slot, teamId);
+
+      Team copy = EngineTools.deepCopyTeam(tempTeam);
+      copy.setId(teamId);
+      canWeStartTheGameUwU();
+      stateChanged();
+      return copy;
+    } finally {
+      lock.unlock();
     }
-    int slot = EngineTools.getNextEmptyTeamSlot(this.gameState);
-    Team tempTeam = new BoardController(this.gameState).initializeTeam(slot, copyOfTemplate);
-    // Method above sets Flags, Pieces in the Team object, which is already a part of this.gameState
-
-    teamToInteger.put(teamId, slot);
-    integerToTeam.put(slot, teamId);
-
-    Team copy = EngineTools.deepCopyTeam(tempTeam);
-    copy.setId(teamId);
-    canWeStartTheGameUwU();
-    return copy;
   }
 
   /**
@@ -147,19 +203,26 @@ public class GameEngine implements Game {
    */
   @Override
   public void makeMove(Move move) {
-    //if piece IDs get send as "17" instead of "p:0_17", this code provides compatibility.
+    //piece IDs can be sent as "p:teamName_17" or as "17", both get translated to the piece index.
     //note that this only works with incoming moves, last move in GameState cannot be tailored to a specific client.
-    if(!move.getPieceId().startsWith("p:" + move.getTeamId() + "_"))
-      move.setPieceId("p:" + move.getTeamId() + "_" + move.getPieceId());
-    
-    if (!new NameIDChanger(integerToTeam, teamToInteger).putMoveIDs(move) 
-        || !movePreconditionsMet(move)) 
-      throw new InvalidMove();
-    EngineTools.computeMove(this.gameState, move);
-    afterMoveCleanup();
-
-    NameIDChanger nidChanger = new NameIDChanger(integerToTeam, teamToInteger);
-    this.nameState = nidChanger.putGameStateNames(gameState);
+    int team = names.teamIndex(move.getTeamId());
+    int index = NameIDChanger.pieceIndex(move.getPieceId(), move.getTeamId());
+
+    lock.lock();
+    try {
+      Piece picked = movePreconditionsMet(team, index, move.getNewPosition());
+      Move idMove = new Move(); // the ID move, without touching the clients move
+      idMove.setTeamId(gameState.getTeams()[team].getId());
+      idMove.setPieceId(picked.getId());
+      idMove.setNewPosition(move.getNewPosition());
+      EngineTools.computeMove(
+          this.gameState, this.board, this.pieces, picked, idMove, this.respawns);
+      afterMoveCleanup();
+
+      publishState();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -172,16 +235,22 @@ public class GameEngine implements Game {
    */
   @Override
   public void giveUp(String teamId) {
-    if (teamToInteger.get(teamId)
-        == this.gameState
-        .getCurrentTeam()) { // test is also in controller but doppelt gemoppelt hält besser
-      EngineTools.removeTeam(gameState, teamToInteger.get(teamId)); // removed and set to null
-      this.gameState.setCurrentTeam(EngineTools.getNextTeam(gameState));
-    }
-    if (EngineTools.removeMovelessTeams(this.gameState)) setGameOver();
+    lock.lock();
+    try {
+      if (!isStarted()) return; // there is no board to give up on
+      int team = names.teamIndex(teamId);
+      if (team != -1
+          && team == this.gameState
+          .getCurrentTeam()) { // test is also in controller but doppelt gemoppelt hält besser
+        EngineTools.removeTeam(gameState, board, team); // removed and set to null
+        this.gameState.setCurrentTeam(EngineTools.getNextTeam(gameState));
+      }
+      if (EngineTools.removeMovelessTeams(this.gameState, this.board, this.legalMoveTable)) setGameOver();
 
-    NameIDChanger nidChanger = new NameIDChanger(integerToTeam, teamToInteger);
-    this.nameState = nidChanger.putGameStateNames(gameState);
+      publishState();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -194,20 +263,35 @@ public class GameEngine implements Game {
   @Override
   public boolean isValidMove(Move move) {
     if (isStarted()) {
-      Piece picked =
-          Arrays.stream(
-              gameState
-              .getTeams()[Integer.parseInt(move.getPieceId().split(":")[1].split("_")[0])]
-                  .getPieces())
-          .filter(p -> p.getId().equals(move.getPieceId()))
-          .findFirst()
-          .get();
-      return EngineTools.getPossibleMoves(this.gameState, picked).stream()
-          .anyMatch(i -> i[0] == move.getNewPosition()[0] && i[1] == move.getNewPosition()[1]);
+      lock.lock(); // the move table is shared
+      try {
+        Piece picked = pieces.get(move.getPieceId());
+        if (picked == null) return false;
+        return isValidMove(
+            Integer.parseInt(picked.getTeamId()),
+            PackedBoard.pieceIndex(picked.getId()),
+            move.getNewPosition());
+      } finally {
+        lock.unlock();
+      }
     }
     return false;
   }
 
+  /**
+   * Checks whether a piece can move to a position, by looking it up in the LegalMoveTable.
+   * Has to be called holding the lock.
+   *
+   * @param team team index
+   * @param index piece index
+   * @param newPos the position as [y,x], may be null
+   * @return true if the piece exists and can move to newPos
+   */
+  private boolean isValidMove(int team, int index, int[] newPos) {
+    if (newPos == null || newPos.length != 2 || pieces.get(team, index) == null) return false;
+    return legalMoveTable.contains(team, index, newPos[0], newPos[1]);
+  }
+
   /**
    * Checks whether the Game is started based on the current {@link GameState}.
    *
@@ -275,25 +359,120 @@ public class GameEngine implements Game {
   /**
    * Returns the current GameState.
    * If the game is started, the GameState with Team Names (instead of IDs) gets returned.
+   * It is published once the game started, so reading it does not lock.
    *
    * @author sistumpf, rsyed
    * @return Current {@link GameState} of the Session
    */
   @Override
   public GameState getCurrentGameState() {
-    if(this.isStarted() || this.isGameOver()) {
-      while(this.nameState == null) {
-        try {
-          Thread.sleep(1);
-        } catch (InterruptedException e) {e.printStackTrace();}
+    GameState named = this.nameState;
+    if (named != null) {
+      return named;
+    }
+    lock.lock();
+    try {
+      if (this.nameState != null) {
+        return this.nameState;
       }
-      return this.nameState;
-    } else {
-
       //inits the current GameState with Names and IDs
       NameIDChanger nidChanger = new NameIDChanger(integerToTeam, teamToInteger);
       return nidChanger.putGameStateNames(gameState);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the version of the GameState returned by getCurrentGameState.
+   * It increases with every join, move, give up, turn timeout and when the game ends.
+   *
+   * @return current state version
+   */
+  @Override
+  public long getStateVersion() {
+    return stateVersion.get();
+  }
+
+  /**
+   * Returns the changes since an older state version, taken from the last 64 published states.
+   * Before the game started, or if the version is too old, the full state is returned.
+   *
+   * @param since the version the client got
+   * @return the changes since that version
+   */
+  @Override
+  public GameStateDelta getStateDelta(long since) {
+    long version = getStateVersion();
+    GameStateDelta delta = history.since(since);
+    if (delta == null) {
+      GameState state = getCurrentGameState();
+      delta = new GameStateDelta();
+      delta.setSince(since);
+      delta.setVersion(version);
+      delta.setFull(true);
+      delta.setState(state);
+      delta.setCurrentTeam(state.getCurrentTeam());
+      delta.setLastMove(state.getLastMove());
     }
+    return delta;
+  }
+
+  @Override
+  public void addStateListener(StateListener listener) {
+    stateListeners.add(listener);
+  }
+
+  @Override
+  public void removeStateListener(StateListener listener) {
+    stateListeners.remove(listener);
+  }
+
+  /**
+   * Returns every move the current team can make, read from the LegalMoveTable.
+   * The moves are listed once per state version and shared by all callers.
+   *
+   * @return the current teams moves with Team Names, empty if the game is not running
+   */
+  @Override
+  public Move[] getLegalMoves() {
+    if (!isStarted()) return new Move[0];
+    lock.lock();
+    try {
+      long version = stateVersion.get();
+      if (legalMovesVersion != version) {
+        this.legalMoves = listLegalMoves();
+        this.legalMovesVersion = version;
+      }
+      return legalMoves;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Lists the moves of the current team with Team Names. Has to be called holding the lock.
+   *
+   * @return the current teams moves, empty if the game is over
+   */
+  private Move[] listLegalMoves() {
+    int team = gameState.getCurrentTeam();
+    if (isGameOver() || team < 0 || gameState.getTeams()[team] == null) return new Move[0];
+    String teamName = integerToTeam.get(team);
+    ArrayList<Move> moves = new ArrayList<Move>();
+    for (int index = 0; index < legalMoveTable.pieceSlots(team); index++) {
+      if (pieces.get(team, index) == null) continue;
+      int size = legalMoveTable.moves(team, index, moveBuffer);
+      for (int i = 0; i < size; i++) {
+        Move move = new Move();
+        move.setTeamId(teamName);
+        move.setPieceId(publisher.pieceId(team, index));
+        move.setNewPosition(
+            new int[] {EngineTools.moveY(moveBuffer[i]), EngineTools.moveX(moveBuffer[i])});
+        moves.add(move);
+      }
+    }
+    return moves.toArray(new Move[0]);
   }
 
   /**
@@ -326,7 +505,7 @@ public class GameEngine implements Game {
   private void initAltGameModeLogic(MapTemplate template) {
     if ((template.getMoveTimeLimitInSeconds() != -1)
         || (template.getTotalTimeLimitInSeconds() != -1)) {
-      this.currentTime = Clock.systemDefaultZone(); // Start BaseClock
+      this.currentTime = baseClock; // Start BaseClock
       if (template.getMoveTimeLimitInSeconds() != -1) {
         this.moveTimeLimitedGameTrigger = true;
       }
@@ -398,35 +577,28 @@ public class GameEngine implements Game {
   }
 
   /**
-   * Handler which should be called incase the Game is a TimeLimited Game
+   * Handler which should be called incase the Game is a TimeLimited Game.
+   * Sets when the game ends and schedules the game over at that time on the GameScheduler.
    *
    * @author rsyed
    */
   public void timeLimitedHandler() {
-    Thread timeLimitedThread =
-        new Thread(
-            () -> {
-              boolean setOnceTrigger = true;
-              while (timeLimitedGameTrigger && !isGameOver()) {
-                if (isStarted()) {
-                  if (setOnceTrigger) {
-                    setWhenGameShouldEnd();
-                    setOnceTrigger = false;
-                  }
-                  // Checks if Clock says its past game end time
-                  if (currentTime.instant().isAfter(gameShouldEndBy.instant())) {
-                    altGameModeGameOverHandler(); // Calls the Handler incase game has to end
-                    timeLimitedGameTrigger = false; // Ends the Thread to reclaim resources
-                  }
-                }
-                try { // Checks EVERY 1 second
-                  Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                  LOG.info("Exception Occured in timeLimitedHandler thread");
-                }
-              }
-            });
-    timeLimitedThread.start();
+    setWhenGameShouldEnd();
+    this.gameTimeout = scheduler.apply(this::gameTimedOut, totalGameTime);
+  }
+
+  /**
+   * Called by the GameScheduler once the total game time is over.
+   */
+  private void gameTimedOut() {
+    lock.lock();
+    try {
+      if (!isGameOver()) {
+        altGameModeGameOverHandler(); // Calls the Handler incase game has to end
+      }
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -463,53 +635,54 @@ public class GameEngine implements Game {
   }
 
   /**
-   * Handler which should be called incase the moves are time limited in the game While the trigger
-   * is active AND Teams are full, Checks if current time is after the time the turn should end. If
-   * so..Switches Current Team to the next available team and resets the time
+   * Handler which should be called incase the moves are time limited in the game.
+   * Schedules the end of the first turn, every following turn gets scheduled by increaseTurnTimer.
    *
    * @author rsyed
    */
   public void moveTimeLimitedHander() {
-    Thread moveLimitedThread =
-        new Thread(
-            () -> {
-              boolean setOnceTrigger = true;
-              while (moveTimeLimitedGameTrigger && !isGameOver()) {
-                if (isStarted()) { // If teams are full
-                  if (setOnceTrigger) {
-                    increaseTurnTimer(); // Block for increasing the timer ONCE for the first turn
-                    setOnceTrigger = false;
-                  }
-                  if (currentTime.instant().isAfter(turnEndsBy.instant())) {
-                    this.gameState.setCurrentTeam(EngineTools.getNextTeam(this.gameState));
-                    NameIDChanger nidChanger = new NameIDChanger(integerToTeam, teamToInteger);
-                    this.nameState = nidChanger.putGameStateNames(gameState);
-                    increaseTurnTimer(); // UPDATES when the next turn should end
-                  }
-                  if (isGameOver()) { // Checks if game is over
-                    moveTimeLimitedGameTrigger = false; // Ends the thread if game is over
-                  }
-                  try {
-                    Thread.sleep(160);
-                  } catch (InterruptedException e) {
-                    LOG.info("Exception Occured in moveTimeLimitedHander thread");
-                  }
-                }
-              }
-            });
-    moveLimitedThread.start();
+    increaseTurnTimer(); // Sets the timer for the first turn
+  }
+
+  /**
+   * Called by the GameScheduler once a turn is over. Switches Current Team to the next available
+   * team and resets the time. If a move scheduled a new turn end in the meantime, nothing happens.
+   * If the scheduler ran early by the clock, the rest of the turn gets scheduled again.
+   *
+   * @param generation the turnGeneration this turn end was scheduled for
+   */
+  void turnTimedOut(long generation) {
+    lock.lock();
+    try {
+      if (isGameOver() || generation != turnGeneration) {
+        return;
+      }
+      Duration left = Duration.between(currentTime.instant(), turnEndsBy.instant());
+      if (!left.isNegative() && !left.isZero()) {
+        this.turnTimeout = scheduler.apply(() -> turnTimedOut(generation), left);
+        return;
+      }
+      this.gameState.setCurrentTeam(EngineTools.getNextTeam(this.gameState));
+      publishState();
+      increaseTurnTimer(); // UPDATES when the next turn should end
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
    * Part of turn Time limited Game logic Method to increase the timer. Can be used when a turn has
    * been made. Also called when turn timer expires to set timer for next move Call when turn time
-   * expires (already done)
+   * expires (already done). The end of the turn gets (re)scheduled on the GameScheduler.
    *
    * @author rsyed
    */
   private void increaseTurnTimer() {
     this.turnEndsBy =
         Clock.fixed(Clock.offset(currentTime, turnTime).instant(), ZoneId.systemDefault());
+    GameScheduler.cancel(turnTimeout);
+    long generation = ++turnGeneration;
+    this.turnTimeout = scheduler.apply(() -> turnTimedOut(generation), turnTime);
   }
 
   /**
@@ -550,6 +723,7 @@ public class GameEngine implements Game {
         });
     this.gameState.setTeams(teamList.toArray(new Team[teamList.size()]));
     setGameOver();
+    stateChanged(); // the named GameState is not published again, but the game is over now
   }
 
   // **************************************************
@@ -570,7 +744,7 @@ public class GameEngine implements Game {
   private void afterMoveCleanup() {
     if (this.moveTimeLimitedGameTrigger) increaseTurnTimer();
     gameState.setCurrentTeam(EngineTools.getNextTeam(gameState));
-    if (EngineTools.removeMovelessTeams(gameState)) setGameOver();
+    if (EngineTools.removeMovelessTeams(gameState, board, legalMoveTable)) setGameOver();
   }
 
   /**
@@ -578,25 +752,24 @@ public class GameEngine implements Game {
    * belongs to the current team * the move complies with the rules
    *
    * @author sistumpf
-   * @param move
-   * @return true if the move is valid
+   * @param team team index of the move, -1 if the team name is unknown
+   * @param index piece index of the move, -1 if the piece ID is malformed
+   * @param newPos the position the piece moves to
+   * @return the moving piece
    */
-  private boolean movePreconditionsMet(Move move) {
+  private Piece movePreconditionsMet(int team, int index, int[] newPos) {
     if (isGameOver()) {
       throw new GameOver();
-    } else if (gameState.getCurrentTeam()
-        != Integer.parseInt(move.getPieceId().split(":")[1].split("_")[0])) {
-      throw new InvalidMove();
-    } else if (!isValidMove(move)) {
+    } else if (team == -1 || gameState.getCurrentTeam() != team) {
       throw new InvalidMove();
-    } else {
-      return true;
     }
+    if (!isStarted() || !isValidMove(team, index, newPos)) throw new InvalidMove();
+    return pieces.get(team, index);
   }
 
   /**
-   * Ends the game internally by setting the endDate Variable,
-   * and externally by starting a Thread that delets the GameSession after 1 minute of waiting.
+   * Ends the game internally by setting the endDate Variable and cancels the timers.
+   * The finished game stays readable until its GameSession gets archived.
    *
    * @author rsyed
    * @author sistumpf
@@ -607,7 +780,24 @@ public class GameEngine implements Game {
       this.endDate = new Date();
     }
     this.weDoneZo = true;
-    new DeleteInformationThread().start();
+    cancelTimers();
+  }
+
+  /**
+   * Cancels the turn and game deadlines scheduled on the GameScheduler.
+   */
+  private void cancelTimers() {
+    GameScheduler.cancel(gameTimeout);
+    GameScheduler.cancel(turnTimeout);
+  }
+
+  /**
+   * Stops the game from running in the background, used when its GameSession gets evicted.
+   * Cancels the timers, so the GameScheduler holds no references to this engine anymore.
+   */
+  @Override
+  public void close() {
+    cancelTimers();
   }
 
   /**
@@ -621,22 +811,48 @@ public class GameEngine implements Game {
       BoardController boardController = new BoardController(this.gameState);
       // Bases and Blocks are placed in the BordController constructor
       try {
-        boardController.initPieces(copyOfTemplate.getPlacement()); // Inits pieces on the grid
+        boardController.initPieces(copyOfTemplate, templateFingerprint); // Inits pieces on the grid, cached per template
       } catch (TooManyPiecesException e) {
         throw new GameOver();
       }
       
       setRandomStartingTeam();
       startAltGameController();
-      this.startedDate = new Date();
       
       //inits the current GameState with Names and IDs
       NameIDChanger nidChanger = new NameIDChanger(integerToTeam, teamToInteger);
       this.gameState = nidChanger.putGameStateIDs(gameState);
-      this.nameState = nidChanger.putGameStateNames(gameState);
+      this.board = PackedBoard.of(gameState);
+      this.moveBuffer = new int[EngineTools.moveBufferSize(board)];
+      this.legalMoveTable = new LegalMoveTable(gameState, board);
+      this.pieces = new PieceRegistry(gameState, board);
+      this.respawns = new RespawnIndex(gameState, board, new Random(board.contentHash()));
+      this.publisher = new NamedStatePublisher(board, integerToTeam, gameState.getTeams().length);
+      this.nameState = publisher.publish(gameState);
+      this.startedDate = new Date(); // started once the named GameState is published
     }
   }
 
+  /**
+   * Renders the String grid from the PackedBoard and updates the GameState with Team Names,
+   * which gets returned by getCurrentGameState.
+   */
+  private void publishState() {
+    this.nameState = publisher.publish(gameState);
+    stateChanged();
+  }
+
+  /**
+   * Increases the state version and notifies the StateListeners.
+   * Has to be called after every change to the state returned by getCurrentGameState,
+   * while holding the lock, so listeners get the versions in order.
+   */
+  private void stateChanged() {
+    long version = stateVersion.incrementAndGet();
+    history.record(version, nameState);
+    for (StateListener listener : stateListeners) listener.stateChanged(version);
+  }
+
   /**
    * Sets a random team as starting team. From 0 to n
    *
@@ -693,41 +909,4 @@ public class GameEngine implements Game {
   // **************************************************
   // End of Private Internal Methods
   // **************************************************
-
-  /**
-   * After the Game has ended and a certain time in seconds (30) has eclipsed, 
-   * the attributes values get cleared to save memory.
-   * This happens in case no GameSession delete request has been sent by the client.
-   * 
-   * @author sistumpf
-   */
-  private class DeleteInformationThread extends Thread {
-    public void run() {
-      for(int seconds = 30; seconds > 0; seconds--) {
-        try {
-          Thread.sleep(1000);
-        } catch (InterruptedException e) {
-          deleteInfo();
-        }
-      }
-      deleteInfo();
-    }
-    
-    private void deleteInfo() {
-      nameState = null;
-      startedDate = null;
-      endDate = null;
-      copyOfTemplate = null;
-      gameState = null;
-      currentTime = null;
-      integerToTeam = null;
-      teamToInteger = null;
-      random = null;
-      gameShouldEndBy = null;
-      totalGameTime = null;
-      turnEndsBy = null;
-      turnTime = null;
-      System.gc();
-    }
-  }
 }
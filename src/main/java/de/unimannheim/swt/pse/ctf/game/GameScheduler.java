@@ -0,0 +1,79 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One scheduler shared by all GameEngines for their turn and game deadlines and by the session
+ * store for evicting old sessions, instead of every game running its own sleeping threads.
+ * Deadlines are scheduled for their exact time and cancelled when they are not needed anymore,
+ * so nothing polls. Scheduled tasks must be short, they run on a small shared pool, whose
+ * threads are virtual if {@link GameThreads} is set to use them. The pool is created on first use,
+ * so the thread mode chosen at startup applies even if this class got loaded before.
+ */
+public final class GameScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(GameScheduler.class);
+
+  private GameScheduler() {}
+
+  /**
+   * Runs a task once after a delay. Exceptions thrown by the task get logged.
+   *
+   * @param task the task to run
+   * @param delay time until the task runs
+   * @return future to cancel the task with
+   */
+  public static ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+    return Pool.EXECUTOR.schedule(logged(task), delay.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs a task periodically, the first time after one period. Exceptions thrown by the task get
+   * logged and do not stop the next runs.
+   *
+   * @param task the task to run
+   * @param period time between two runs
+   * @return future to cancel the task with
+   */
+  public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+    long millis = period.toMillis();
+    return Pool.EXECUTOR.scheduleAtFixedRate(logged(task), millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Cancels a scheduled task, if it did not run yet. Does nothing if future is null.
+   *
+   * @param future returned by {@link #schedule(Runnable, Duration)}
+   */
+  public static void cancel(ScheduledFuture<?> future) {
+    if (future != null) future.cancel(false);
+  }
+
+  private static Runnable logged(Runnable task) {
+    return () -> {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOG.error("Scheduled game task failed", e);
+      }
+    };
+  }
+
+  /** Holds the pool, initialized by the first scheduled task. */
+  private static final class Pool {
+    static final ScheduledThreadPoolExecutor EXECUTOR = createExecutor();
+  }
+
+  private static ScheduledThreadPoolExecutor createExecutor() {
+    ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            GameThreads.factory("game-scheduler-"));
+    executor.setRemoveOnCancelPolicy(true); // cancelled deadlines do not pile up in the queue
+    return executor;
+  }
+}
@@ -0,0 +1,84 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads the game uses in the background for its timers (GameScheduler) and the
+ * state events of the sessions.
+ *
+ * <p>With {@link #setVirtual(boolean)} the threads become virtual threads. This needs Java 21, as
+ * the project is built for Java 17 the virtual thread API is called by reflection. On older
+ * runtimes daemon platform threads are used instead. The shared executors are created when they
+ * are first used and keep the factory they got, so the mode has to be chosen before the first game
+ * or session is created. CtfApplication does so in its constructor.
+ */
+public final class GameThreads {
+  private static final Logger LOG = LoggerFactory.getLogger(GameThreads.class);
+  private static volatile boolean virtual;
+
+  private GameThreads() {}
+
+  /**
+   * Chooses virtual or platform threads for all factories created afterwards.
+   *
+   * @param virtual true to use virtual threads, if the runtime supports them
+   */
+  public static void setVirtual(boolean virtual) {
+    if (virtual && !virtualThreadsSupported()) {
+      LOG.warn("Virtual threads need Java 21, using platform threads");
+      virtual = false;
+    }
+    GameThreads.virtual = virtual;
+  }
+
+  /**
+   * @return true if new factories create virtual threads
+   */
+  public static boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Creates a factory for named threads, which do not keep the JVM running.
+   *
+   * @param name prefix of the thread names, followed by a counter
+   * @return virtual or daemon platform thread factory
+   */
+  public static ThreadFactory factory(String name) {
+    if (virtual) {
+      ThreadFactory factory = virtualFactory(name);
+      if (factory != null) return factory;
+    }
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static boolean virtualThreadsSupported() {
+    return virtualFactory("probe-") != null;
+  }
+
+  /**
+   * Thread.ofVirtual().name(name, 1).factory() by reflection.
+   *
+   * @return the factory, null if the runtime has no virtual threads
+   */
+  private static ThreadFactory virtualFactory(String name) {
+    try {
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+      Method nameMethod = builder.getMethod("name", String.class, long.class);
+      Object named = nameMethod.invoke(ofVirtual, name, 1L);
+      return (ThreadFactory) builder.getMethod("factory").invoke(named);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package de.unimannheim.swt.pse.ctf.game;
 
 import java.util.ArrayList;
 import de.unimannheim.swt.pse.ctf.game.map.Directions;
+import de.unimannheim.swt.pse.ctf.game.map.MovementTable;
 import de.unimannheim.swt.pse.ctf.game.map.ShapeType;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
 import de.unimannheim.swt.pse.ctf.game.state.Move;
@@ -14,6 +15,14 @@ import de.unimannheim.swt.pse.ctf.game.state.Piece;
  * @author sistumpf
  */
 class GameUtilities {
+  /** y and x offsets of a single step into a direction, indexed like {@link #updatePos(int[], int, int)}. */
+  static final int[] DIRECTION_Y = new int[] {0, 0, -1, 1, -1, -1, 1, 1};
+  static final int[] DIRECTION_X = new int[] {-1, 1, 0, 0, -1, 1, -1, 1};
+
+  // transforms for the lshape go left-down-right-up, first 12 outer layer, then inner layer
+  static final int[] LSHAPE_X = new int[] {-2, -2, -2, -1, 0, 1, 2, 2, 2, 1, 0, -1, /*inner layer*/ -1, 0, 1, 0};
+  static final int[] LSHAPE_Y = new int[] {-1, 0, 1, 2, 2, 2, 1, 0, -1, -2, -2, -2, /*inner layer*/ 0, 1, 0, -1};
+
   /**
    * This method is needed to respawn a piece, it adds all positions in a certain radius around the base to an Array.
    * 
@@ -123,6 +132,100 @@ class GameUtilities {
     return positions;
   }
 
+  /**
+   * Encodes a position as a single int, row in the upper and column in the lower 16 bits.
+   *
+   * @param y row
+   * @param x column
+   * @return encoded position
+   */
+  public static int encodeMove(int y, int x) {
+    return y << 16 | x;
+  }
+
+  /**
+   * @param move a position encoded by {@link #encodeMove(int, int)}
+   * @return the positions row
+   */
+  public static int moveY(int move) {
+    return move >>> 16;
+  }
+
+  /**
+   * @param move a position encoded by {@link #encodeMove(int, int)}
+   * @return the positions column
+   */
+  public static int moveX(int move) {
+    return move & 0xFFFF;
+  }
+
+  /**
+   * The core of the PackedBoard move generation, it walks over all squares a piece could move to
+   * without allocating anything. Valid positions are written to buffer as
+   * {@link #encodeMove(int, int) encoded} ints, if buffer is null they only get counted.
+   * Directions are not walked square by square: the reach gets clamped to the blocks and edge of
+   * the board and to the first occupied square, both looked up in the boards {@link RayTable}.
+   *
+   * @param board
+   * @param piece
+   * @param buffer to write the encoded positions to, may be null
+   * @param stopAtFirst if true, the scan stops after the first valid position
+   * @return number of valid positions
+   * @throws InvalidShapeException if the Shape is not yet implemented here
+   */
+  static int scanMoves(PackedBoard board, Piece piece, int[] buffer, boolean stopAtFirst)
+      throws InvalidShapeException {
+    int y = piece.getPosition()[0];
+    int x = piece.getPosition()[1];
+    int team = PackedBoard.team(board.get(y, x));
+    MovementTable movement = board.movement(piece.getDescription());
+    int attackPower = movement.attackPower();
+    int count = 0;
+
+    if (!movement.hasDirections()) {
+      if (movement.shape() != ShapeType.lshape)
+        throw new InvalidShapeException(String.valueOf(movement.shape()));
+      for (int i = 0; i < LSHAPE_X.length; i++) {
+        int newY = y + LSHAPE_Y[i];
+        int newX = x + LSHAPE_X[i];
+        if (!validPos(board, newY, newX, team, attackPower)) continue;
+        if (i < 12) {
+          // the squares between the piece and the target, in the direction of the outer layers side
+          int side = 12 + i / 3;
+          if (!board.isEmpty(y + LSHAPE_Y[side], x + LSHAPE_X[side])) continue;
+          if (i % 3 != 1 && !board.isEmpty(y + 2 * LSHAPE_Y[side], x + 2 * LSHAPE_X[side]))
+            continue;
+        }
+        if (buffer != null) buffer[count] = encodeMove(newY, newX);
+        if (++count == 1 && stopAtFirst) return count;
+      }
+      return count;
+    }
+
+    RayTable rays = board.rays();
+    for (int direction = 0; direction < 8; direction++) {
+      int reach = Math.min(movement.reach(direction), rays.blockReach(direction, y, x));
+      if (reach <= 0) continue;
+      int hit = rays.firstOccupied(direction, y, x, reach);
+      int free = hit == 0 ? reach : hit - 1; // empty squares before the first occupied one
+      int dy = DIRECTION_Y[direction];
+      int dx = DIRECTION_X[direction];
+      if (buffer == null && !stopAtFirst) {
+        count += free;
+      } else {
+        for (int step = 1; step <= free; step++) {
+          if (buffer != null) buffer[count] = encodeMove(y + step * dy, x + step * dx);
+          if (++count == 1 && stopAtFirst) return count;
+        }
+      }
+      if (hit != 0 && validPos(board, y + hit * dy, x + hit * dx, team, attackPower)) {
+        if (buffer != null) buffer[count] = encodeMove(y + hit * dy, x + hit * dx);
+        if (++count == 1 && stopAtFirst) return count;
+      }
+    }
+    return count;
+  }
+
   /**
    * Creates an ArrayList containing all a pieces valid directions and its maximum reach into that direction in int[direction, reach] pairs.
    * This map only applies for the Piece picked. The reach value is directly
@@ -283,6 +386,33 @@ class GameUtilities {
     return false;
   }
 
+  /**
+   * Checks if a piece can occupy a given position, using a PackedBoard. A position can be occupied
+   * if it is empty, another teams base or a piece from another team with a weaker or the same
+   * attack power.
+   *
+   * @param board
+   * @param y
+   * @param x
+   * @param team the team index of the moving piece
+   * @param attackPower the attack power of the moving piece
+   * @return true if the position can be occupied.
+   */
+  public static boolean validPos(PackedBoard board, int y, int x, int team, int attackPower) {
+    if (!board.inBounds(y, x)) return false;
+    long cell = board.get(y, x);
+    switch (PackedBoard.kind(cell)) {
+      case PackedBoard.EMPTY:
+        return true;
+      case PackedBoard.BASE:
+        return PackedBoard.team(cell) != team;
+      case PackedBoard.PIECE:
+        return PackedBoard.team(cell) != team && PackedBoard.attackPower(cell) <= attackPower;
+      default:
+        return false;
+    }
+  }
+
   /**
    * Checks if a position is not contained in the grid.
    * 
@@ -337,19 +467,12 @@ class GameUtilities {
    * @return true if the position is occupied by a weaker opponent that can be captured
    */
   public static boolean occupiedByWeakerOpponent(GameState gameState, int[] pos, Piece picked) {
-    for (Piece p :
-      gameState
-      .getTeams()[getOccupantTeam(gameState.getGrid(), pos)]
-          .getPieces()) {
-      if (p.getId().equals(gameState.getGrid()[pos[0]][pos[1]])) {
-        if (p.getDescription().getAttackPower() <= picked.getDescription().getAttackPower()) {
-          return true;
-        } else {
-          return false;
-        }
-      }
-    }
-    return false;
+    Piece p =
+        PieceRegistry.find(
+            gameState.getTeams()[getOccupantTeam(gameState.getGrid(), pos)],
+            gameState.getGrid()[pos[0]][pos[1]]);
+    return p != null
+        && p.getDescription().getAttackPower() <= picked.getDescription().getAttackPower();
   }
 
   /**
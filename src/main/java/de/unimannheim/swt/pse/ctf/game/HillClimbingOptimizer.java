@@ -0,0 +1,155 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.List;
+
+/**
+ * The standard hill climbing algorithm for spaced out placement: repeatedly makes the single move
+ * (or swap) which gives the team the most possible moves, until no move improves the placement.
+ * A limited number of side steps (moves that keep the number of possible moves) are allowed, later
+ * runs get more of them.
+ *
+ * @author ysiebenh, sistumpf
+ */
+public class HillClimbingOptimizer implements PlacementOptimizer {
+  private final int sideStepsPerRun;
+
+  /**
+   * @param sideStepsPerRun run n may take n * sideStepsPerRun side steps
+   */
+  public HillClimbingOptimizer(int sideStepsPerRun) {
+    this.sideStepsPerRun = sideStepsPerRun;
+  }
+
+  @Override
+  public void optimize(
+      PackedBoard board,
+      MobilityScore score,
+      int team,
+      List<Piece> movable,
+      int[] bounds,
+      boolean swapOnly,
+      int run,
+      long deadline) {
+    int[] sideSteps = new int[] {run * sideStepsPerRun};
+    while (System.nanoTime() - deadline < 0) {
+      ReferenceMove bestNeighbour =
+          bestNeighbour(board, score, team, movable, bounds, swapOnly, sideSteps);
+      if (bestNeighbour.getPiece() == null) break;
+      int[] oldPos = bestNeighbour.getPiece().getPosition();
+      int[] newPos = bestNeighbour.getNewPosition();
+      if (!board.isEmpty(newPos[0], newPos[1])) {
+        for (Piece occupant : movable)
+          if (occupant.getPosition()[0] == newPos[0] && occupant.getPosition()[1] == newPos[1])
+            occupant.setPosition(oldPos);
+      }
+      PlacementOptimizer.swap(board, oldPos, newPos);
+      bestNeighbour.getPiece().setPosition(newPos);
+    }
+  }
+
+  /**
+   * Returns the best neighbour based on possible moves.
+   *
+   * @return move that leads to the best neighbour, its piece is null if there is no better one
+   */
+  ReferenceMove bestNeighbour(
+      PackedBoard board,
+      MobilityScore score,
+      int team,
+      List<Piece> movable,
+      int[] bounds,
+      boolean swapOnly,
+      int[] sideSteps) {
+    if (swapOnly) return shuffledNeighbour(board, score, team, movable, sideSteps);
+    return movedNeighbour(board, score, team, movable, bounds, sideSteps);
+  }
+
+  /**
+   * This best neighbour algorithm only swaps the movable pieces positions to ensure their mobility.
+   *
+   * @param board the board the swaps get tried on
+   * @param score MobilityScore listening to board
+   * @param team index of the team to analyze
+   * @param movable contains only the pieces which will be swapped
+   * @param sideSteps sideSteps the algorithm is allowed to take
+   * @return the best piece-swap to get more possible moves
+   */
+  ReferenceMove shuffledNeighbour(
+      PackedBoard board, MobilityScore score, int team, List<Piece> movable, int[] sideSteps) {
+    ReferenceMove bestMove = new ReferenceMove(null, new int[] {0, 0});
+    int bestPossibleMoves = score.teamMoves(team);
+    for (Piece piece : movable) {
+      int[] oldPos = piece.getPosition().clone();
+      for (Piece other : movable) {
+        if (piece == other) continue;
+        int[] newPos = other.getPosition().clone();
+        PlacementOptimizer.swap(board, oldPos, newPos);
+        piece.setPosition(newPos);
+        other.setPosition(oldPos);
+        int currentPossibleMoves = score.teamMoves(team);
+        if (currentPossibleMoves > bestPossibleMoves) {
+          bestMove.setNewPosition(newPos);
+          bestMove.setPiece(piece);
+          bestPossibleMoves = currentPossibleMoves;
+        } else if (currentPossibleMoves == bestPossibleMoves && sideSteps[0] > 0) {
+          bestMove.setNewPosition(newPos);
+          bestMove.setPiece(piece);
+          bestPossibleMoves = currentPossibleMoves;
+          sideSteps[0]--;
+        }
+        PlacementOptimizer.swap(board, oldPos, newPos);
+        piece.setPosition(oldPos);
+        other.setPosition(newPos);
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * This best neighbour algorithm tries to find the position with the most possible moves by
+   * repositioning one piece onto a free square.
+   *
+   * @param board the board the moves get tried on
+   * @param score MobilityScore listening to board
+   * @param team index of the team to analyze
+   * @param movable contains the pieces which may be repositioned
+   * @param bounds [minY, maxY, minX, maxX] of the squares the pieces may be moved to
+   * @param sideSteps sideSteps the algorithm is allowed to take
+   * @return the best move to get more possible moves
+   */
+  ReferenceMove movedNeighbour(
+      PackedBoard board,
+      MobilityScore score,
+      int team,
+      List<Piece> movable,
+      int[] bounds,
+      int[] sideSteps) {
+    ReferenceMove bestMove = new ReferenceMove(null, new int[] {0, 0});
+    int bestPossibleMoves = score.teamMoves(team);
+    for (Piece piece : movable) {
+      int[] oldPos = piece.getPosition().clone();
+      for (int y = bounds[0]; y <= bounds[1]; y++) {
+        for (int x = bounds[2]; x <= bounds[3]; x++) {
+          if (!board.isEmpty(y, x)) continue;
+          board.move(oldPos[0], oldPos[1], y, x);
+          piece.setPosition(new int[] {y, x});
+          int currentPossibleMoves = score.teamMoves(team);
+          if (currentPossibleMoves > bestPossibleMoves) {
+            bestMove.setNewPosition(new int[] {y, x});
+            bestMove.setPiece(piece);
+            bestPossibleMoves = currentPossibleMoves;
+          } else if (currentPossibleMoves == bestPossibleMoves && sideSteps[0] > 0) {
+            bestMove.setNewPosition(new int[] {y, x});
+            bestMove.setPiece(piece);
+            bestPossibleMoves = currentPossibleMoves;
+            sideSteps[0]--;
+          }
+          board.move(y, x, oldPos[0], oldPos[1]);
+          piece.setPosition(oldPos);
+        }
+      }
+    }
+    return bestMove;
+  }
+}
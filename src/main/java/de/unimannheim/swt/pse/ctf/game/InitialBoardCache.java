@@ -0,0 +1,129 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import com.google.gson.Gson;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the initial boards of recently used map templates. Blocks are placed deterministically
+ * from the template. Pieces are too, as long as the placement optimization finishes within the
+ * {@link PlacementPool} time budget and the pools parallelism and optimizer stay the same, so the
+ * placed grid is stored together with those settings and only reused while they match. Instead of
+ * placing the blocks and running the placement optimization again, a new game gets a copy of the
+ * cached grid.
+ *
+ * <p>Templates are identified by their Gson JSON, the same representation the block placement uses
+ * as its seed. The least recently used templates get dropped once more than {@link
+ * #configure(int) maxSize} are cached, a size of 0 disables the cache.
+ */
+public final class InitialBoardCache {
+  private static final Gson GSON = new Gson();
+  private static final Map<String, Boards> CACHE =
+      new LinkedHashMap<String, Boards>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boards> eldest) {
+          return size() > maxSize;
+        }
+      };
+  private static volatile int maxSize = 64;
+
+  /** The grids of one template, the placed grid is null until a game on it started. */
+  private static class Boards {
+    String[][] blocked;
+    String[][] placed;
+    String placedWith; // placementSettings() the placed grid was created with
+  }
+
+  private InitialBoardCache() {}
+
+  /**
+   * Sets the maximum number of cached templates and clears the cache.
+   *
+   * @param maxSize maximum number of cached templates, 0 to disable the cache
+   */
+  public static void configure(int maxSize) {
+    synchronized (CACHE) {
+      InitialBoardCache.maxSize = Math.max(0, maxSize);
+      CACHE.clear();
+    }
+  }
+
+  /**
+   * @param template the map template
+   * @return a key which is equal for templates with equal content
+   */
+  static String fingerprint(MapTemplate template) {
+    return GSON.toJson(template);
+  }
+
+  /**
+   * @param fingerprint returned by {@link #fingerprint(MapTemplate)}
+   * @return a copy of the grid with bases and blocks, null if it is not cached
+   */
+  static String[][] getBlocked(String fingerprint) {
+    synchronized (CACHE) {
+      Boards boards = CACHE.get(fingerprint);
+      return boards == null ? null : copy(boards.blocked);
+    }
+  }
+
+  /**
+   * @param fingerprint returned by {@link #fingerprint(MapTemplate)}
+   * @return a copy of the grid with bases, blocks and pieces, null if it is not cached or was placed
+   *     with other PlacementPool settings
+   */
+  static String[][] getPlaced(String fingerprint) {
+    String settings = placementSettings();
+    synchronized (CACHE) {
+      Boards boards = CACHE.get(fingerprint);
+      return boards == null || !settings.equals(boards.placedWith) ? null : copy(boards.placed);
+    }
+  }
+
+  /**
+   * Caches the grid with bases and blocks.
+   *
+   * @param fingerprint returned by {@link #fingerprint(MapTemplate)}
+   * @param grid grid with bases and blocks, gets copied
+   */
+  static void putBlocked(String fingerprint, String[][] grid) {
+    if (maxSize == 0) return;
+    synchronized (CACHE) {
+      CACHE.computeIfAbsent(fingerprint, key -> new Boards()).blocked = copy(grid);
+    }
+  }
+
+  /**
+   * Caches the grid after the pieces got placed with the current PlacementPool settings. Only
+   * placements which finished within the time budget should be cached.
+   *
+   * @param fingerprint returned by {@link #fingerprint(MapTemplate)}
+   * @param grid grid with bases, blocks and pieces, gets copied
+   */
+  static void putPlaced(String fingerprint, String[][] grid) {
+    if (maxSize == 0) return;
+    String settings = placementSettings();
+    synchronized (CACHE) {
+      Boards boards = CACHE.computeIfAbsent(fingerprint, key -> new Boards());
+      boards.placed = copy(grid);
+      boards.placedWith = settings;
+    }
+  }
+
+  /**
+   * @return the PlacementPool settings a placement depends on, besides the time budget
+   */
+  private static String placementSettings() {
+    return PlacementPool.parallelism() + " " + PlacementPool.optimizer().getClass().getName();
+  }
+
+  private static String[][] copy(String[][] grid) {
+    if (grid == null) return null;
+    String[][] copy = new String[grid.length][];
+    for (int y = 0; y < grid.length; y++) copy[y] = grid[y].clone();
+    return copy;
+  }
+}
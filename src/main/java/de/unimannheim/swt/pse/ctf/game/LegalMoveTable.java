@@ -0,0 +1,141 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.util.Arrays;
+
+/**
+ * Caches the squares every piece can move to as a bitset over the board, so validating a move is
+ * a single bit test instead of generating the pieces moves and searching them. Checking if a team
+ * can still move reads the same bitsets.
+ * The table listens to its PackedBoard and only pieces which could walk over a changed square get
+ * invalidated (see {@link PieceInvalidator}). Invalidated pieces get their moves generated again
+ * the next time they are asked for, so a turn generates the moves of each piece at most once, no
+ * matter how many moves get validated or listed.
+ */
+public class LegalMoveTable extends PieceInvalidator {
+  private final GameState gameState;
+  private final int cols;
+  private final int words;
+  private final int[] buffer;
+  // all arrays are indexed by [team][piece index]
+  private final long[][][] targets;
+  private final boolean[][] valid;
+  private final boolean[][] mobile; // true if the valid bitset is not empty
+
+  /**
+   * Creates the table for a GameState and registers it as a listener on the board. Every piece
+   * starts out invalidated.
+   *
+   * @param gameState a GameState with IDs
+   * @param board the PackedBoard belonging to gameState
+   */
+  public LegalMoveTable(GameState gameState, PackedBoard board) {
+    super(gameState, board);
+    this.gameState = gameState;
+    this.cols = board.getCols();
+    this.words = (board.getRows() * cols + 63) / 64;
+    this.buffer = new int[EngineTools.moveBufferSize(board)];
+    int teams = pieces.length;
+    this.targets = new long[teams][][];
+    this.valid = new boolean[teams][];
+    this.mobile = new boolean[teams][];
+    for (int team = 0; team < teams; team++) {
+      this.targets[team] = new long[pieces[team].length][];
+      this.valid[team] = new boolean[pieces[team].length];
+      this.mobile[team] = new boolean[pieces[team].length];
+    }
+    board.addListener(this);
+  }
+
+  /**
+   * Checks if a piece can move to a square.
+   *
+   * @param team team index
+   * @param index piece index
+   * @param y
+   * @param x
+   * @return true if the piece is on the board and can move to [y,x]
+   */
+  public boolean contains(int team, int index, int y, int x) {
+    if (!board.inBounds(y, x)) return false;
+    long[] bits = targets(team, index);
+    if (bits == null) return false;
+    int square = y * cols + x;
+    return (bits[square >>> 6] & (1L << square)) != 0;
+  }
+
+  /**
+   * Writes the squares a piece can move to into a buffer, encoded by {@link
+   * EngineTools#encodeMove(int, int)}.
+   *
+   * @param team team index
+   * @param index piece index
+   * @param out at least {@link EngineTools#moveBufferSize(PackedBoard)} big
+   * @return number of squares written to out
+   */
+  public int moves(int team, int index, int[] out) {
+    long[] bits = targets(team, index);
+    if (bits == null) return 0;
+    int size = 0;
+    for (int word = 0; word < bits.length; word++) {
+      for (long rest = bits[word]; rest != 0; rest &= rest - 1) {
+        int square = word * 64 + Long.numberOfTrailingZeros(rest);
+        out[size++] = EngineTools.encodeMove(square / cols, square % cols);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Checks if a team got moves left. Pieces whose bitset is still valid are checked first, then
+   * invalidated pieces get their moves generated until the first piece with a move is found.
+   *
+   * @param team team index
+   * @return true if the team got moves left
+   */
+  public boolean teamGotMovesLeft(int team) {
+    if (gameState.getTeams()[team] == null) return false;
+    for (int index = 0; index < pieces[team].length; index++)
+      if (valid[team][index] && mobile[team][index]) return true;
+    for (int index = 0; index < pieces[team].length; index++)
+      if (!valid[team][index] && targets(team, index) != null && mobile[team][index]) return true;
+    return false;
+  }
+
+  /**
+   * @param team team index
+   * @return number of piece indices of the team, some may have no piece
+   */
+  public int pieceSlots(int team) {
+    return pieces[team].length;
+  }
+
+  @Override
+  void invalidate(int team, int index) {
+    valid[team][index] = false;
+  }
+
+  /**
+   * Returns the bitset of a piece, generating its moves if it got invalidated.
+   *
+   * @return the bitset, null if there is no such piece on the board
+   */
+  private long[] targets(int team, int index) {
+    if (team < 0 || team >= pieces.length || index < 0 || index >= pieces[team].length)
+      return null;
+    if (pieces[team][index] == null || !onBoard(team, index)) return null;
+    long[] bits = targets[team][index];
+    if (!valid[team][index]) {
+      if (bits == null) targets[team][index] = bits = new long[words];
+      else Arrays.fill(bits, 0);
+      int size = EngineTools.generateMoves(board, pieces[team][index], buffer);
+      for (int i = 0; i < size; i++) {
+        int square = EngineTools.moveY(buffer[i]) * cols + EngineTools.moveX(buffer[i]);
+        bits[square >>> 6] |= 1L << square;
+      }
+      mobile[team][index] = size > 0;
+      valid[team][index] = true;
+    }
+    return bits;
+  }
+}
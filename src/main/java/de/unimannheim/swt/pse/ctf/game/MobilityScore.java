@@ -0,0 +1,75 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+
+/**
+ * Keeps the number of possible moves of every team up to date while pieces get moved around on a
+ * PackedBoard, used to score placements while hill climbing.
+ * Every pieces move count is cached. After a board change, only pieces which could walk over the
+ * changed squares get counted again (see {@link PieceInvalidator}), so trying a neighbour placement
+ * costs a few pieces instead of every piece on the board.
+ */
+public class MobilityScore extends PieceInvalidator {
+  private static final int DIRTY = -1;
+
+  // all arrays are indexed by [team][piece index]
+  private final int[][] moves;
+  private final int[][] dirty;
+  private final int[] dirtySize;
+  private final int[] teamMoves;
+
+  /**
+   * Creates the score for a GameState and registers it as a listener on the board.
+   *
+   * @param gameState a GameState with IDs
+   * @param board the PackedBoard belonging to gameState, pieces outside of it count no moves
+   */
+  public MobilityScore(GameState gameState, PackedBoard board) {
+    super(gameState, board);
+    int teams = pieces.length;
+    this.moves = new int[teams][];
+    this.dirty = new int[teams][];
+    this.dirtySize = new int[teams];
+    this.teamMoves = new int[teams];
+    for (int team = 0; team < teams; team++) {
+      int size = pieces[team].length;
+      this.moves[team] = new int[size];
+      this.dirty[team] = new int[size];
+      for (int index = 0; index < size; index++) invalidate(team, index);
+    }
+    board.addListener(this);
+  }
+
+  /**
+   * Returns the number of possible moves of a team, counting only the invalidated pieces again.
+   *
+   * @param team team index
+   * @return sum of the possible moves of the teams pieces
+   */
+  public int teamMoves(int team) {
+    while (dirtySize[team] > 0) {
+      int index = dirty[team][--dirtySize[team]];
+      int count = onBoard(team, index) ? EngineTools.countMoves(board, pieces[team][index]) : 0;
+      moves[team][index] = count;
+      teamMoves[team] += count;
+    }
+    return teamMoves[team];
+  }
+
+  /**
+   * @return sum of the possible moves of all teams
+   */
+  public int totalMoves() {
+    int total = 0;
+    for (int team = 0; team < teamMoves.length; team++) total += teamMoves(team);
+    return total;
+  }
+
+  @Override
+  void invalidate(int team, int index) {
+    if (moves[team][index] == DIRTY || pieces[team][index] == null) return;
+    teamMoves[team] -= moves[team][index];
+    moves[team][index] = DIRTY;
+    dirty[team][dirtySize[team]++] = index;
+  }
+}
@@ -46,6 +46,40 @@ public class NameIDChanger {
     return deepNamalizeGameState(gameState);
   }
   
+  /**
+   * Translates a team name to its team index.
+   *
+   * @param teamName the team name, as the clients know it
+   * @return the team index, -1 if there is no team with that name
+   */
+  public int teamIndex(String teamName) {
+    Integer index = teamName == null ? null : teamToInteger.get(teamName);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Translates a piece ID sent by a client to its piece index, without building new Strings.
+   * The ID can be the named ID "p:teamName_17" or, for compatibility, only the index "17".
+   *
+   * @param pieceId the piece ID, as the clients know it
+   * @param teamName the name of the team the piece belongs to
+   * @return the piece index, -1 if the ID cannot belong to the team
+   */
+  public static int pieceIndex(String pieceId, String teamName) {
+    if (pieceId == null || teamName == null) return -1;
+    int start = 0;
+    int underscore = teamName.length() + 2;
+    if (pieceId.startsWith("p:")
+        && pieceId.startsWith(teamName, 2)
+        && pieceId.length() > underscore
+        && pieceId.charAt(underscore) == '_') start = underscore + 1;
+    try {
+      return Integer.parseInt(pieceId, start, pieceId.length(), 10);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
   /**
    * Replaces a Moves team names with the corresponding IDs.
    * 
@@ -0,0 +1,200 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.util.Arrays;
+import java.util.Map;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+
+/**
+ * Publishes the GameState with Team Names, as {@link NameIDChanger#putGameStateNames(GameState)}
+ * does, but without deep copying the whole GameState for every move.
+ * Every published GameState is a new object, but grid rows, Teams and Pieces which did not change
+ * since the last publish are shared with the previously published GameState. The changes are
+ * collected by listening to the PackedBoard, so publishing costs about as much as the move
+ * changed. Published GameStates are snapshots and must not be modified.
+ * Team Names are looked up once, the named base and piece IDs are built once per piece and reused
+ * by every publish.
+ * The ID GameStates grid gets updated on publish as well, only for the changed rows.
+ */
+public class NamedStatePublisher implements PackedBoard.SquareListener {
+  private final PackedBoard board;
+  private final Map<Integer, String> integerToTeam;
+  private final boolean[] changedRows;
+  private final boolean[] changedTeams;
+  private final String[] baseIds;
+  private final String[] piecePrefixes;
+  private final String[][] pieceIds; // [team][piece index], built on first use
+  private Piece[][] namedPieces; // [team][piece index], the Pieces published last
+  private GameState published;
+
+  /**
+   * Creates the publisher and registers it as a listener on the board.
+   * Everything counts as changed until the first publish.
+   *
+   * @param board the PackedBoard belonging to the ID GameState
+   * @param integerToTeam maps team indexes to their names
+   * @param teams number of teams
+   */
+  public NamedStatePublisher(PackedBoard board, Map<Integer, String> integerToTeam, int teams) {
+    this.board = board;
+    this.integerToTeam = integerToTeam;
+    this.changedRows = new boolean[board.getRows()];
+    this.changedTeams = new boolean[teams];
+    this.baseIds = new String[teams];
+    this.piecePrefixes = new String[teams];
+    this.pieceIds = new String[teams][0];
+    this.namedPieces = new Piece[teams][0];
+    for (int team = 0; team < teams; team++) {
+      baseIds[team] = "b:" + integerToTeam.get(team);
+      piecePrefixes[team] = "p:" + integerToTeam.get(team) + "_";
+    }
+    Arrays.fill(changedRows, true);
+    Arrays.fill(changedTeams, true);
+    board.addListener(this);
+  }
+
+  @Override
+  public void squareChanged(int y, int x, long oldCell, long newCell) {
+    changedRows[y] = true;
+    if (PackedBoard.kind(oldCell) >= PackedBoard.BASE) changedTeams[PackedBoard.team(oldCell)] = true;
+    if (PackedBoard.kind(newCell) >= PackedBoard.BASE) changedTeams[PackedBoard.team(newCell)] = true;
+  }
+
+  /**
+   * Creates the next GameState with Team Names, sharing everything unchanged with the last one.
+   *
+   * @param gameState the ID GameState
+   * @return a new GameState with Team Names
+   */
+  public GameState publish(GameState gameState) {
+    GameState named = new GameState();
+    named.setCurrentTeam(gameState.getCurrentTeam());
+
+    String[][] idGrid = gameState.getGrid();
+    String[][] grid = new String[board.getRows()][];
+    for (int y = 0; y < grid.length; y++) {
+      if (published == null || changedRows[y]) {
+        idGrid[y] = board.toGridRow(y);
+        grid[y] = namedRow(y);
+        changedRows[y] = false;
+      } else {
+        grid[y] = published.getGrid()[y];
+      }
+    }
+    named.setGrid(grid);
+
+    Team[] teams = new Team[gameState.getTeams().length];
+    for (int i = 0; i < teams.length; i++) {
+      Team team = gameState.getTeams()[i];
+      if (team == null) continue;
+      Team last = published == null ? null : published.getTeams()[i];
+      if (last != null && !changedTeams[i] && last.getFlags() == team.getFlags()) teams[i] = last;
+      else teams[i] = namedTeam(i, team);
+      changedTeams[i] = false;
+    }
+    named.setTeams(teams);
+
+    if (gameState.getLastMove() != null) named.setLastMove(namedMove(gameState));
+
+    this.published = named;
+    return named;
+  }
+
+  /**
+   * Renders a grid row with Team Names.
+   *
+   * @param y the row
+   * @return a new row
+   */
+  private String[] namedRow(int y) {
+    String[] row = new String[board.getCols()];
+    for (int x = 0; x < row.length; x++) {
+      long cell = board.get(y, x);
+      switch (PackedBoard.kind(cell)) {
+        case PackedBoard.BLOCK:
+          row[x] = "b";
+          break;
+        case PackedBoard.BASE:
+          row[x] = baseIds[PackedBoard.team(cell)];
+          break;
+        case PackedBoard.PIECE:
+          row[x] = pieceId(PackedBoard.team(cell), PackedBoard.piece(cell));
+          break;
+        default:
+          row[x] = "";
+      }
+    }
+    return row;
+  }
+
+  /**
+   * @param team team index
+   * @param piece piece index
+   * @return the piece ID with Team Name, the same String for every call
+   */
+  String pieceId(int team, int piece) {
+    String[] ids = pieceIds[team];
+    if (piece >= ids.length) pieceIds[team] = ids = Arrays.copyOf(ids, piece + 1);
+    if (ids[piece] == null) ids[piece] = piecePrefixes[team] + piece;
+    return ids[piece];
+  }
+
+  /**
+   * Creates a Team with Team Names, Pieces which did not move are shared with the last publish.
+   *
+   * @param index team index
+   * @param team the Team with IDs
+   * @return a new Team with Team Names
+   */
+  private Team namedTeam(int index, Team team) {
+    String teamName = integerToTeam.get(index);
+    Team named = new Team();
+    named.setBase(team.getBase());
+    named.setFlags(team.getFlags());
+    named.setId(teamName);
+    named.setColor(team.getColor());
+
+    Piece[] pieces = new Piece[team.getPieces().length];
+    for (int j = 0; j < pieces.length; j++) {
+      Piece piece = team.getPieces()[j];
+      int pieceIndex = PackedBoard.pieceIndex(piece.getId());
+      if (pieceIndex >= namedPieces[index].length)
+        namedPieces[index] = Arrays.copyOf(namedPieces[index], pieceIndex + 1);
+      Piece last = namedPieces[index][pieceIndex];
+      if (last == null || !Arrays.equals(last.getPosition(), piece.getPosition())) {
+        last = new Piece();
+        last.setDescription(piece.getDescription());
+        last.setId(pieceId(index, pieceIndex));
+        last.setTeamId(teamName);
+        last.setPosition(piece.getPosition().clone());
+        namedPieces[index][pieceIndex] = last;
+      }
+      pieces[j] = last;
+    }
+    named.setPieces(pieces);
+    return named;
+  }
+
+  /**
+   * Creates the last Move with Team Names. If the team which made the move got removed, only the
+   * new position is set.
+   * The ID Moves team ID is its team index, as set by {@link NameIDChanger#putMoveIDs(Move)}.
+   *
+   * @param gameState the ID GameState
+   * @return a new Move with Team Names
+   */
+  private Move namedMove(GameState gameState) {
+    Move lastMove = gameState.getLastMove();
+    Move move = new Move();
+    String pieceId = lastMove.getPieceId();
+    int team = pieceId == null ? -1 : Integer.parseInt(lastMove.getTeamId());
+    if (team >= 0 && gameState.getTeams()[team] != null) {
+      move.setTeamId(integerToTeam.get(team));
+      move.setPieceId(pieceId(team, PackedBoard.pieceIndex(pieceId)));
+    }
+    if (lastMove.getNewPosition() != null) move.setNewPosition(lastMove.getNewPosition().clone());
+    return move;
+  }
+}
@@ -0,0 +1,329 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import de.unimannheim.swt.pse.ctf.game.map.MovementTable;
+import de.unimannheim.swt.pse.ctf.game.map.PieceDescription;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+
+/**
+ * A primitive representation of the grid, used by the GameEngine for move generation.
+ * Every square is packed into one long, so probing a square never has to split or parse a String:
+ *
+ * <ul>
+ *   <li>bits 0-1: what occupies the square (empty, block, base or piece)
+ *   <li>bits 2-11: the team index of a base or piece
+ *   <li>bits 12-31: the piece index, taken from the pieces id "p:team_index"
+ *   <li>bits 32-63: the pieces attack power
+ * </ul>
+ *
+ * The String grid in the GameState is rendered from this board with {@link #toGrid()}, only when
+ * the GameState gets published.
+ *
+ * <p>Like the attack power, the movement of the pieces gets compiled once per description into a
+ * {@link MovementTable} the board keeps, so the move generation never reads the descriptions.
+ */
+public class PackedBoard {
+  public static final int EMPTY = 0;
+  public static final int BLOCK = 1;
+  public static final int BASE = 2;
+  public static final int PIECE = 3;
+
+  private static final int KIND_MASK = 0b11;
+  private static final int TEAM_SHIFT = 2;
+  private static final int TEAM_MASK = 0x3FF;
+  private static final int PIECE_SHIFT = 12;
+  private static final int PIECE_MASK = 0xFFFFF;
+  private static final int POWER_SHIFT = 32;
+
+  private final int rows;
+  private final int cols;
+  private final long[] cells;
+  private final ArrayList<SquareListener> listeners = new ArrayList<SquareListener>();
+  private RayTable rays; // Created by the first move generation, see rays()
+  private final Map<PieceDescription, MovementTable> movements =
+      new IdentityHashMap<PieceDescription, MovementTable>(); // see movement(PieceDescription)
+
+  /**
+   * Creates an empty board.
+   *
+   * @param rows number of rows (y)
+   * @param cols number of columns (x)
+   */
+  public PackedBoard(int rows, int cols) {
+    this.rows = rows;
+    this.cols = cols;
+    this.cells = new long[rows * cols];
+  }
+
+  /**
+   * Parses a GameStates grid once and creates the corresponding board. The GameState must use
+   * Team IDs (not names), as the team index gets parsed from the cells.
+   *
+   * @param gameState a GameState with IDs
+   * @return the packed version of the GameStates grid
+   */
+  public static PackedBoard of(GameState gameState) {
+    String[][] grid = gameState.getGrid();
+    PackedBoard board = new PackedBoard(grid.length, grid[0].length);
+    for (int y = 0; y < grid.length; y++) {
+      for (int x = 0; x < grid[y].length; x++) {
+        String cell = grid[y][x];
+        if (cell.equals("b")) board.setBlock(y, x);
+        else if (cell.startsWith("b:")) board.setBase(y, x, Integer.parseInt(cell.substring(2)));
+      }
+    }
+    for (int team = 0; team < gameState.getTeams().length; team++) {
+      Team t = gameState.getTeams()[team];
+      if (t == null) continue;
+      for (Piece piece : t.getPieces()) {
+        int[] pos = piece.getPosition();
+        if (board.inBounds(pos[0], pos[1]))
+          board.setPiece(
+              pos[0], pos[1], team, pieceIndex(piece.getId()), piece.getDescription().getAttackPower());
+        board.movement(piece.getDescription());
+      }
+    }
+    return board;
+  }
+
+  /**
+   * Parses the piece index from a piece ID in the "p:team_index" format.
+   *
+   * @param pieceId the pieces ID
+   * @return the index after the underscore
+   */
+  public static int pieceIndex(String pieceId) {
+    return Integer.parseInt(pieceId.substring(pieceId.lastIndexOf('_') + 1));
+  }
+
+  /**
+   * Returns a pieces ID as it is used in the ID GameState.
+   *
+   * @param team team index
+   * @param piece piece index
+   * @return "p:team_piece"
+   */
+  public static String pieceId(int team, int piece) {
+    return "p:" + team + "_" + piece;
+  }
+
+  /**
+   * Renders the board back into the String grid format of the GameState, using Team IDs.
+   *
+   * @return a new String grid
+   */
+  public String[][] toGrid() {
+    String[][] grid = new String[rows][];
+    for (int y = 0; y < rows; y++) grid[y] = toGridRow(y);
+    return grid;
+  }
+
+  /**
+   * Renders one row of the board into the String grid format of the GameState, using Team IDs.
+   *
+   * @param y the row
+   * @return a new String row
+   */
+  public String[] toGridRow(int y) {
+    String[] row = new String[cols];
+    for (int x = 0; x < cols; x++) row[x] = cellString(y, x);
+    return row;
+  }
+
+  /**
+   * Returns the String representation of a single square, as it would be found in the grid.
+   *
+   * @param y
+   * @param x
+   * @return "", "b", "b:team" or "p:team_piece"
+   */
+  public String cellString(int y, int x) {
+    long cell = get(y, x);
+    switch (kind(cell)) {
+      case BLOCK:
+        return "b";
+      case BASE:
+        return "b:" + team(cell);
+      case PIECE:
+        return pieceId(team(cell), piece(cell));
+      default:
+        return "";
+    }
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getCols() {
+    return cols;
+  }
+
+  /**
+   * Checks if a position is on the board.
+   *
+   * @param y
+   * @param x
+   * @return true if the position is inside the board
+   */
+  public boolean inBounds(int y, int x) {
+    return y >= 0 && x >= 0 && y < rows && x < cols;
+  }
+
+  /**
+   * Returns the packed square at a position. The position must be in bounds.
+   *
+   * @param y
+   * @param x
+   * @return the packed square
+   */
+  public long get(int y, int x) {
+    return cells[y * cols + x];
+  }
+
+  public static int kind(long cell) {
+    return (int) cell & KIND_MASK;
+  }
+
+  public static int team(long cell) {
+    return ((int) cell >>> TEAM_SHIFT) & TEAM_MASK;
+  }
+
+  public static int piece(long cell) {
+    return ((int) cell >>> PIECE_SHIFT) & PIECE_MASK;
+  }
+
+  public static int attackPower(long cell) {
+    return (int) (cell >> POWER_SHIFT);
+  }
+
+  /**
+   * Overwrites a square with an already packed value, e.g. one taken from {@link #get(int, int)}.
+   *
+   * @param y
+   * @param x
+   * @param cell the packed square
+   */
+  public void set(int y, int x, long cell) {
+    write(y, x, cell);
+  }
+
+  public boolean isEmpty(int y, int x) {
+    return kind(get(y, x)) == EMPTY;
+  }
+
+  public void setEmpty(int y, int x) {
+    write(y, x, EMPTY);
+  }
+
+  public void setBlock(int y, int x) {
+    write(y, x, BLOCK);
+  }
+
+  public void setBase(int y, int x, int team) {
+    write(y, x, BASE | (long) team << TEAM_SHIFT);
+  }
+
+  public void setPiece(int y, int x, int team, int piece, int attackPower) {
+    write(
+        y,
+        x,
+        PIECE
+            | (long) team << TEAM_SHIFT
+            | (long) piece << PIECE_SHIFT
+            | (long) attackPower << POWER_SHIFT);
+  }
+
+  /**
+   * Moves whatever occupies a square to another square, the old square becomes empty.
+   *
+   * @param fromY
+   * @param fromX
+   * @param toY
+   * @param toX
+   */
+  public void move(int fromY, int fromX, int toY, int toX) {
+    long cell = get(fromY, fromX);
+    write(fromY, fromX, EMPTY);
+    write(toY, toX, cell);
+  }
+
+  /**
+   * Adds a listener that gets notified after a square changed.
+   *
+   * @param listener
+   */
+  public void addListener(SquareListener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Returns the RayTable of this board, created on first use and updated on every write.
+   *
+   * @return the boards RayTable
+   */
+  RayTable rays() {
+    if (rays == null) rays = new RayTable(this);
+    return rays;
+  }
+
+  /**
+   * Returns the compiled movement of a description. Boards created by {@link #of(GameState)}
+   * compile the descriptions of all pieces up front, other descriptions get compiled on first use.
+   * Every description is compiled once per board, changes to it afterwards are not seen, like
+   * changes to the attack power packed into the squares.
+   *
+   * @param description a pieces description
+   * @return the descriptions MovementTable
+   */
+  public MovementTable movement(PieceDescription description) {
+    MovementTable table = movements.get(description);
+    if (table == null) {
+      table = MovementTable.compile(description);
+      movements.put(description, table);
+    }
+    return table;
+  }
+
+  /**
+   * Writes a square and notifies the listeners, if the square actually changed.
+   *
+   * @param y
+   * @param x
+   * @param cell the new packed square
+   */
+  private void write(int y, int x, long cell) {
+    long old = cells[y * cols + x];
+    cells[y * cols + x] = cell;
+    if (old == cell) return;
+    if (rays != null) rays.squareChanged(y, x, old, cell); // before listeners, which may scan moves
+    for (int i = 0; i < listeners.size(); i++) listeners.get(i).squareChanged(y, x, old, cell);
+  }
+
+  /**
+   * Hashes the boards content, used as a seed for pseudo random numbers.
+   *
+   * @return hash of all squares
+   */
+  public int contentHash() {
+    return Arrays.hashCode(cells);
+  }
+
+  /** Gets notified if a square on a PackedBoard changes. */
+  public interface SquareListener {
+    /**
+     * Called after a square changed.
+     *
+     * @param y
+     * @param x
+     * @param oldCell the packed square before the change
+     * @param newCell the packed square after the change
+     */
+    void squareChanged(int y, int x, long oldCell, long newCell);
+  }
+}
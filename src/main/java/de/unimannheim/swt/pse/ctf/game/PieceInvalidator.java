@@ -0,0 +1,113 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.map.MovementTable;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+
+/**
+ * Base for caches of per piece move information, which listen to a PackedBoard.
+ * If a square changes, only the pieces which could walk over that square get invalidated: the
+ * pieces which left or entered the square, the first piece into each of the 8 directions (if its
+ * reach is long enough) and shape pieces at most 2 squares away. All other pieces keep their moves.
+ */
+abstract class PieceInvalidator implements PackedBoard.SquareListener {
+  /** the direction pointing back, indexed like GameUtilities.updatePos */
+  private static final int[] OPPOSITE = new int[] {1, 0, 3, 2, 7, 6, 5, 4};
+
+  final PackedBoard board;
+  /** the pieces indexed by [team][piece index], null for indices without a piece */
+  final Piece[][] pieces;
+
+  /**
+   * Collects the pieces of a GameState. Subclasses have to register themselves as a listener on
+   * the board, once they are initialized.
+   *
+   * @param gameState a GameState with IDs
+   * @param board the PackedBoard belonging to gameState
+   */
+  PieceInvalidator(GameState gameState, PackedBoard board) {
+    this.board = board;
+    int teams = gameState.getTeams().length;
+    this.pieces = new Piece[teams][];
+    for (int team = 0; team < teams; team++) {
+      Team t = gameState.getTeams()[team];
+      Piece[] teamPieces = t == null ? new Piece[0] : t.getPieces();
+      int size = 0;
+      for (Piece piece : teamPieces) size = Math.max(size, PackedBoard.pieceIndex(piece.getId()) + 1);
+      this.pieces[team] = new Piece[size];
+      for (Piece piece : teamPieces) this.pieces[team][PackedBoard.pieceIndex(piece.getId())] = piece;
+    }
+  }
+
+  /**
+   * Called for every piece whose moves might have changed.
+   *
+   * @param team team index
+   * @param index piece index
+   */
+  abstract void invalidate(int team, int index);
+
+  /**
+   * Checks if a piece still stands on its position on the board.
+   *
+   * @param team team index
+   * @param index piece index
+   * @return true if the square at the pieces position contains the piece
+   */
+  boolean onBoard(int team, int index) {
+    int[] pos = pieces[team][index].getPosition();
+    if (!board.inBounds(pos[0], pos[1])) return false;
+    long cell = board.get(pos[0], pos[1]);
+    return PackedBoard.kind(cell) == PackedBoard.PIECE
+        && PackedBoard.team(cell) == team
+        && PackedBoard.piece(cell) == index;
+  }
+
+  @Override
+  public void squareChanged(int y, int x, long oldCell, long newCell) {
+    if (PackedBoard.kind(oldCell) == PackedBoard.PIECE)
+      invalidate(PackedBoard.team(oldCell), PackedBoard.piece(oldCell));
+    if (PackedBoard.kind(newCell) == PackedBoard.PIECE)
+      invalidate(PackedBoard.team(newCell), PackedBoard.piece(newCell));
+
+    // direction pieces: the first occupied square into each direction could walk onto this square
+    for (int direction = 0; direction < 8; direction++) {
+      int otherY = y;
+      int otherX = x;
+      for (int distance = 1; ; distance++) {
+        otherY += GameUtilities.DIRECTION_Y[direction];
+        otherX += GameUtilities.DIRECTION_X[direction];
+        if (!board.inBounds(otherY, otherX)) break;
+        long cell = board.get(otherY, otherX);
+        if (PackedBoard.kind(cell) == PackedBoard.EMPTY) continue;
+        if (PackedBoard.kind(cell) == PackedBoard.PIECE) {
+          MovementTable movement = movementOf(cell);
+          if (movement.hasDirections() && movement.reach(OPPOSITE[direction]) >= distance)
+            invalidate(PackedBoard.team(cell), PackedBoard.piece(cell));
+        }
+        break;
+      }
+    }
+
+    // shape pieces: their moves and the squares they jump over are at most 2 squares away
+    for (int otherY = y - 2; otherY <= y + 2; otherY++) {
+      for (int otherX = x - 2; otherX <= x + 2; otherX++) {
+        if (!board.inBounds(otherY, otherX)) continue;
+        long cell = board.get(otherY, otherX);
+        if (PackedBoard.kind(cell) == PackedBoard.PIECE && !movementOf(cell).hasDirections())
+          invalidate(PackedBoard.team(cell), PackedBoard.piece(cell));
+      }
+    }
+  }
+
+  /**
+   * Returns the compiled movement of the piece on a square.
+   *
+   * @param cell packed square containing a piece
+   * @return the pieces MovementTable
+   */
+  private MovementTable movementOf(long cell) {
+    return board.movement(pieces[PackedBoard.team(cell)][PackedBoard.piece(cell)].getDescription());
+  }
+}
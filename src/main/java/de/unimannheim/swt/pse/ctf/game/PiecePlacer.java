@@ -8,10 +8,9 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
@@ -27,8 +26,7 @@ import de.unimannheim.swt.pse.ctf.game.state.Team;
  * @author sistumpf
  */
 public class PiecePlacer {
-  int spacedOutSideSteps = 10;
-  int spacedOutRepetitions = Runtime.getRuntime().availableProcessors();
+  int spacedOutRepetitions = PlacementPool.parallelism();
   GameState gameState;
   //boundaries = a teams rectangular partition of the map, in those boundaries the starter pieces will be placed
   int[][] boundaries;
@@ -39,6 +37,8 @@ public class PiecePlacer {
   // int[4-7][] =  positions for GameUtilities.updatePos, encoded as left-right
   int[][] directions = new int[][] {{0,6,4},{1,5,7},{2,4,5},{3,7,6},
     {3,2},{2,3},{0,1},{1,0}};
+  //false once an optimization got stopped by the PlacementPools time budget
+  boolean finishedInTime = true;
 
     /**
      * This Constructor needs a gameState and the team boundaries, the gameState will be altered if placePieces is called.
@@ -70,6 +70,14 @@ public class PiecePlacer {
       }
     }
 
+    /**
+     * @return false if an optimization got stopped by the PlacementPools time budget,
+     *         the placement might then differ from run to run
+     */
+    public boolean finishedInTime() {
+      return finishedInTime;
+    }
+
     /**
      * Places the pieces symmetrical on the grid and in the arrays.
      * The teams are facing the nearest other team,
@@ -112,10 +120,11 @@ public class PiecePlacer {
     }
 
     /**
-     * Places the Pieces on the Board using a standard hill-climbing algorithm to ensure that every
-     * piece has the maximum amount of possible moves.
-     * Here the hill climbing algorithm gets called multiple times to ensure the best result.
-     * How often it's called depends on the processors cores.
+     * Places the Pieces on the Board using the PlacementPools {@link PlacementOptimizer} (by default
+     * a standard hill-climbing algorithm) to ensure that every piece has the maximum amount of possible moves.
+     * Here the optimizer gets called multiple times to ensure the best result.
+     * How often it's called depends on the parallelism of the shared PlacementPool, which runs the calls.
+     * The optimizer stops when the PlacementPools time budget is used up.
      * The GameState with the most possible moves is chosen to stay, its values are written to this.GameState
      *
      * @author sistumpf
@@ -123,32 +132,33 @@ public class PiecePlacer {
      * @param shuffle states if the pieces in strongestPieces will be modified or not. true = only the pieces in strongestPieces swap their positions, false = normal spaced out placement
      */
     private void placePiecesSpaced(LinkedHashSet<Piece> strongestPieces, boolean shuffle) {
-      ExecutorService executorService = Executors.newFixedThreadPool(spacedOutRepetitions);
+      long deadline = System.nanoTime() + PlacementPool.timeBudget().toNanos();
       List<Callable<GameState>> tasks = new LinkedList<>();
       for (int i = 0; i < this.spacedOutRepetitions; i++) {
         final int mod = i;
         tasks.add(
             () -> {
-              return hillClimbingSpacedPlaced((Integer.MAX_VALUE / this.spacedOutRepetitions) * mod, mod * this.spacedOutSideSteps, EngineTools.deepCopyGameState(gameState), strongestPieces, shuffle);
+              return optimizedPlacement((Integer.MAX_VALUE / this.spacedOutRepetitions) * mod, mod, EngineTools.deepCopyGameState(gameState), strongestPieces, shuffle, deadline);
             });
       }
-      ArrayList<GameState> stateList = new ArrayList<GameState>();
+      GameState best = null;
+      int bestMoves = -1;
       try {
-        List<Future<GameState>> futures = executorService.invokeAll(tasks);
-        for(int i=0; i<futures.size(); i++)
-          stateList.add(futures.get(i).get());
-      } catch (InterruptedException | ExecutionException e) { e.printStackTrace(); }
-      for(int i=0; i<stateList.size(); i++)
-        stateList.sort(new Comparator<GameState>() {
-          @Override
-          public int compare(GameState g1, GameState g2) {
-            return gameStatePossibleMoves(g2) - gameStatePossibleMoves(g1);
+        List<Future<GameState>> futures = PlacementPool.pool().invokeAll(tasks);
+        for(int i=0; i<futures.size(); i++) {
+          GameState state = futures.get(i).get();
+          int moves = gameStatePossibleMoves(state);
+          if(moves > bestMoves) {
+            best = state;
+            bestMoves = moves;
           }
-        });
+        }
+      } catch (InterruptedException | ExecutionException e) { e.printStackTrace(); }
+      if(System.nanoTime() >= deadline)
+        this.finishedInTime = false;
 
-      this.gameState.setGrid(stateList.get(0).getGrid());
-      this.gameState.setTeams(stateList.get(0).getTeams());
-      executorService.shutdown();
+      this.gameState.setGrid(best.getGrid());
+      this.gameState.setTeams(best.getTeams());
     }
 
     /**
@@ -192,48 +202,32 @@ public class PiecePlacer {
     //        additional helper methods               //
     ////////////////////////////////////////////////////
     /**
-     * The hill climbing algorithm for spaced out placement.
+     * Places the pieces randomly (if not shuffling) and lets the PlacementPools optimizer improve every teams placement.
      * 
      * @author ysiebenh, sistumpf
      * @param randomModifier used to generate different pseudo-random numbers
-     * @param steps how many side steps are allowed for hill climbing
-     * @param gameState to modify using the hill climbing algorithm
-     * @param strongestPieces contains a list of pieces which will be the only affected/not affected pieces by the hill climbing algorithm
+     * @param run number of the parallel run, passed to the optimizer
+     * @param gameState to modify using the optimizer
+     * @param strongestPieces contains a list of pieces which will be the only affected/not affected pieces by the optimizer
      * @param shuffle states if the pieces in strongestPieces will be modified or not. true = only the pieces in strongestPieces swap their positions, false = normal spaced out placement
-     * @return gameState modified by the hill climbing algorithm
+     * @param deadline System.nanoTime() at which the optimizer has to stop
+     * @return gameState modified by the optimizer
      */
-    private GameState hillClimbingSpacedPlaced(int randomModifier, int steps, GameState gameState, LinkedHashSet<Piece> strongestPieces, boolean shuffle) {
+    private GameState optimizedPlacement(int randomModifier, int run, GameState gameState, LinkedHashSet<Piece> strongestPieces, boolean shuffle, long deadline) {
       strongestPieces = updateReferences(gameState, strongestPieces);
       if(!shuffle)
         randomPlacement(gameState, randomModifier, strongestPieces);
+      PackedBoard board = PackedBoard.of(gameState);
+      MobilityScore score = new MobilityScore(gameState, board);
+      PlacementOptimizer optimizer = PlacementPool.optimizer();
       for (int n=0; n<gameState.getTeams().length; n++) {
-        int[] sideSteps = new int[] {steps};
-        for(ReferenceMove bestNeighbour = getBestNeighbour(gameState, strongestPieces, shuffle, n, sideSteps);
-            bestNeighbour.getPiece() != null;
-            bestNeighbour = getBestNeighbour(gameState, strongestPieces, shuffle, n, sideSteps)) {
-          if(gameState.getGrid()[bestNeighbour.getNewPosition()[0]][bestNeighbour.getNewPosition()[1]].equals("")) {
-            gameState.getGrid()[bestNeighbour.getNewPosition()[0]][bestNeighbour.getNewPosition()[1]]
-                = bestNeighbour.getPiece().getId();
-            gameState.getGrid()[bestNeighbour.getPiece().getPosition()[0]][bestNeighbour.getPiece().getPosition()[1]]
-                = "";
-            bestNeighbour.getPiece().setPosition(bestNeighbour.getNewPosition());
-          } else {
-            int[] oldPos = bestNeighbour.getPiece().getPosition();
-            int[] newPos = bestNeighbour.getNewPosition();
-            Piece occupant =
-                Arrays.stream(
-                    gameState.getTeams()[n]
-                        .getPieces())
-                .filter(p -> p.getId().equals(gameState.getGrid()[newPos[0]][newPos[1]]))
-                .findFirst()
-                .get();
-            bestNeighbour.getPiece().setPosition(newPos);
-            occupant.setPosition(oldPos);
-            gameState.getGrid()[newPos[0]][newPos[1]] = bestNeighbour.getPiece().getId();
-            gameState.getGrid()[oldPos[0]][oldPos[1]] = occupant.getId();
-          }
-        }
+        ArrayList<Piece> movable = new ArrayList<Piece>();
+        for(Piece piece : gameState.getTeams()[n].getPieces())
+          if(strongestPieces.contains(piece) == shuffle)
+            movable.add(piece);
+        optimizer.optimize(board, score, n, movable, boundaries[n], shuffle, run, deadline);
       }
+      gameState.setGrid(board.toGrid());
       return gameState;
     }
 
@@ -250,125 +244,13 @@ public class PiecePlacer {
       LinkedHashSet<Piece> newIgnores = new LinkedHashSet<Piece>();
       for(Piece piece : strongestPieces) {
         int team = Integer.parseInt(piece.getId().split(":")[1].split("_")[0]);
-        for(Piece compare : gameState.getTeams()[team].getPieces())
-          if(piece.getId().equals(compare.getId())) {
-            newIgnores.add(compare);
-          }
+        Piece compare = PieceRegistry.find(gameState.getTeams()[team], piece.getId());
+        if(compare != null)
+          newIgnores.add(compare);
       }
       return newIgnores;
     }
 
-    /**
-     * Returns the best neighbour based on possible moves.
-     * Depending on shuffle, the best neighbour is either the truly best neighbour or the best neighbour with pieces from strongestPieces shuffled positions.
-     * This method chooses the right bestNeighbour algorithm accordingly.
-     *
-     * @author sistumpf
-     * @param GameState to analyze
-     * @param strongestPieces contains a list of pieces which will be the only affected/not affected pieces by the hill climbing algorithm
-     * @param shuffle states if the pieces in strongestPieces will be modified or not. true = only the pieces in strongestPieces swap their positions, false = normal spaced out placement
-     * @param teamID for Team to analyze
-     * @param spacedOutSideSteps sideSteps the algorithm is allowed to take
-     * @return move that leads to the best neighbour
-     */
-    private ReferenceMove getBestNeighbour(GameState gameState, LinkedHashSet<Piece> strongestPieces, boolean shuffle, int teamID, int[] spacedOutSideSteps) {
-      if(!shuffle)
-        return getBestNeighbour(gameState, strongestPieces, teamID, spacedOutSideSteps);
-      return getShuffledNeighbour(gameState, strongestPieces, teamID, spacedOutSideSteps);
-    }
-
-
-    /**
-     * This best neighbour algorithm only swaps the pieces positions from shuffleThese to ensure their mobility.
-     * 
-     * @author sistumpf
-     * @param gameState to analyze and calculate on
-     * @param shuffleThese contains only the pieces which will be swapped.
-     * @param teamID for Team to analyze
-     * @param spacedOutSideSteps sideSteps the algorithm is allowed to take
-     * @return the best piece-swap to get more possible moves
-     */
-    private ReferenceMove getShuffledNeighbour(GameState gameState, LinkedHashSet<Piece> shuffleThese, int teamID, int[] spacedOutSideSteps) {
-      gameState.setCurrentTeam(teamID);
-      ReferenceMove bestMove = new ReferenceMove(null, new int[] {0,0});
-      int bestPossibleMoves = numberPossibleMoves(gameState, teamID);
-      for(Piece piece : shuffleThese) {
-        int[] oldPos = piece.getPosition().clone();
-        for(Piece other : shuffleThese) {
-          if(piece == other ||
-              Integer.parseInt(piece.getTeamId()) != teamID ||
-              !piece.getTeamId().equals(other.getTeamId())) continue;
-          int[] newPos = other.getPosition().clone();
-          /* The only uses for grid in EngineTools is to check what occupies a position and if an opponent is weaker.
-           * Switching two pieces of the same team changes nothing, so the grid doesn't need to be modified here. */
-          piece.setPosition(newPos);
-          other.setPosition(oldPos);
-          int currentPossibleMoves = numberPossibleMoves(gameState, teamID);
-          if(currentPossibleMoves > bestPossibleMoves) {
-            bestMove.setNewPosition(newPos);
-            bestMove.setPiece(piece);
-            bestPossibleMoves = currentPossibleMoves;
-          } else if (currentPossibleMoves == bestPossibleMoves && spacedOutSideSteps[0] > 0) {
-            bestMove.setNewPosition(newPos);
-            bestMove.setPiece(piece);
-            bestPossibleMoves = currentPossibleMoves;
-            spacedOutSideSteps[0]--;
-          }
-          piece.setPosition(oldPos);
-          other.setPosition(newPos);
-        }
-      }
-      return bestMove;
-    }
-
-    /**
-     * This best neighbour algorithm tries to find the position with the most possible moves by repositioning one piece onto a free field.
-     * Pieces from ignoreThese are ignored and won't be repositioned.
-     * 
-     * @author ysiebenh, sistumpf
-     * @param gameState to analyze and calculate on
-     * @param ignoreThese contains pieces which will not be repositioned.
-     * @param teamID for Team to analyze
-     * @param spacedOutSideSteps sideSteps the algorithm is allowed to take
-     * @return the best move to get more possible moves
-     */
-    private ReferenceMove getBestNeighbour(GameState gameState, LinkedHashSet<Piece> ignoreThese, int teamID, int[] spacedOutSideSteps) {
-      boolean skipSomePieces = ignoreThese.size() > 0;
-      gameState.setCurrentTeam(teamID);
-      ReferenceMove bestMove = new ReferenceMove(null, new int[] {0,0});
-      int bestPossibleMoves = numberPossibleMoves(gameState, teamID);
-      for (Piece piece : gameState.getTeams()[teamID].getPieces()) {
-        if(skipSomePieces)
-          if(ignoreThese.contains(piece))
-            continue;
-        int[] oldPos = piece.getPosition().clone();
-        for (int y = boundaries[teamID][0]; y <= boundaries[teamID][1]; y++) {
-          for (int x = boundaries[teamID][2]; x <= boundaries[teamID][3]; x++) {
-            if (gameState.getGrid()[y][x].equals("")) {
-              gameState.getGrid()[y][x] = piece.getId();
-              gameState.getGrid()[oldPos[0]][oldPos[1]] = "";
-              piece.setPosition(new int[] {y, x});
-              int currentPossibleMoves = numberPossibleMoves(gameState, teamID);
-              if(currentPossibleMoves > bestPossibleMoves) {
-                bestMove.setNewPosition(new int[] {y,x});
-                bestMove.setPiece(piece);
-                bestPossibleMoves = currentPossibleMoves;
-              } else if (currentPossibleMoves == bestPossibleMoves && spacedOutSideSteps[0] > 0) {
-                bestMove.setNewPosition(new int[] {y,x});
-                bestMove.setPiece(piece);
-                bestPossibleMoves = currentPossibleMoves;
-                spacedOutSideSteps[0]--;
-              }
-              gameState.getGrid()[oldPos[0]][oldPos[1]] = piece.getId();
-              gameState.getGrid()[y][x] = "";
-              piece.setPosition(oldPos);
-            }
-          }
-        }
-      }
-      return bestMove;
-    }
-
     /**
      * Calculates the number of possible moves to be made on a GameState.
      * 
@@ -377,26 +259,8 @@ public class PiecePlacer {
      * @return number of possible moves from a given GameState
      */
     private int gameStatePossibleMoves(GameState gameState) {
-      int moves = 0;
-      for(int teamId = 0; teamId < gameState.getTeams().length; teamId++)
-        moves += numberPossibleMoves(gameState, teamId);
-      return moves;
-    }
-
-    /**
-     * Calculates the number of possible moves a team is able to make.
-     * 
-     * @author sistumpf
-     * @param gameState
-     * @param teamId
-     * @return number of possible moves
-     */
-    private int numberPossibleMoves(GameState gameState, int teamId) {
-      int moves = 0;
-      gameState.setCurrentTeam(teamId);
-      for(Piece p : gameState.getTeams()[teamId].getPieces())
-        moves += EngineTools.getPossibleMoves(gameState, p).size();
-      return moves;
+      PackedBoard board = PackedBoard.of(gameState);
+      return new MobilityScore(gameState, board).totalMoves();
     }
 
     /**
@@ -413,9 +277,11 @@ public class PiecePlacer {
       int[] xTransforms;
       int[] yTransforms;
 
+      int team = Integer.parseInt(gameState.getGrid()[basePos[0]][basePos[1]].split(":")[1]);
+
       for (int distance = 1; distance < gameState.getGrid().length; distance++) {
-        xTransforms = EngineTools.fillXTransformations(new int[distance * 8], distance);
-        yTransforms = EngineTools.fillYTransformations(new int[distance * 8], distance);
+        xTransforms = RingTable.x(distance);
+        yTransforms = RingTable.y(distance);
         int arrayPosModifier = 
             facing == 0 ? 3*(xTransforms.length/4) : 
               facing == 1 ? xTransforms.length/4 : 
@@ -423,7 +289,6 @@ public class PiecePlacer {
                   0;
 
         for (int clockHand = 0; clockHand < distance * 8; clockHand++) {
-          int team = Integer.parseInt(gameState.getGrid()[basePos[0]][basePos[1]].split(":")[1]);
           int x = basePos[1] + xTransforms[clockHand];
           int y = basePos[0] + yTransforms[clockHand];
           int[] newPos = new int[] {y, x};
@@ -524,7 +389,8 @@ public class PiecePlacer {
     }
 
     /**
-     * Places the pieces on the board randomly using the {@link EngineTools#seededRandom(String[][], int, int, int) seededRandom} method
+     * Places the pieces on the board randomly. The positions are drawn from one Random, seeded with the
+     * {@link EngineTools#gridHash(String[][]) gridHash} and the modifier, instead of hashing the grid for every position.
      *
      * @author ysiebenh, sistumpf
      * @param gameState to place the pieces on
@@ -533,6 +399,7 @@ public class PiecePlacer {
      */
     private void randomPlacement(GameState gameState, int modifier, LinkedHashSet<Piece> ignoreThese) {
       boolean skipSomePieces = ignoreThese.size() > 0;
+      Random random = new Random(EngineTools.gridHash(gameState.getGrid()) * 31L + modifier);
       for (int team=0; team<gameState.getTeams().length; team++) {
         for (Piece p : gameState.getTeams()[team].getPieces()) {
           if(skipSomePieces)
@@ -541,8 +408,8 @@ public class PiecePlacer {
           int newY = 0;
           int newX = 0;
           do {
-            newY = EngineTools.seededRandom(gameState.getGrid(), modifier++, boundaries[team][1]+1, boundaries[team][0]);
-            newX = EngineTools.seededRandom(gameState.getGrid(), 1 - modifier++, boundaries[team][3]+1, boundaries[team][2]);
+            newY = random.nextInt(boundaries[team][1]+1 - boundaries[team][0]) + boundaries[team][0];
+            newX = random.nextInt(boundaries[team][3]+1 - boundaries[team][2]) + boundaries[team][2];
           } while (!gameState.getGrid()[newY][newX].equals(""));
           p.setPosition(new int[] {newY, newX});
           gameState.getGrid()[newY][newX] = p.getId();
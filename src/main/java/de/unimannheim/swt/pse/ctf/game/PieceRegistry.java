@@ -0,0 +1,139 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+
+/**
+ * Finds a games pieces by their ID or position without searching through the Team arrays.
+ * Pieces are stored by [team][piece index], the piece index being the number after the underscore
+ * in "p:team_index". Positions get resolved through the PackedBoard, which already knows the
+ * team and piece index of every occupied square.
+ * The GameEngine keeps the registry up to date through {@link #remove(int, int)} on captures.
+ * Pieces which only moved or respawned need no update, and pieces of removed teams (null in the
+ * GameState) are never returned.
+ */
+public class PieceRegistry {
+  private final GameState gameState;
+  private final PackedBoard board;
+  private final Piece[][] pieces;
+
+  /**
+   * Creates the registry for a GameState using Team IDs.
+   *
+   * @param gameState a GameState with IDs
+   * @param board the PackedBoard belonging to gameState
+   */
+  public PieceRegistry(GameState gameState, PackedBoard board) {
+    this.gameState = gameState;
+    this.board = board;
+    this.pieces = new Piece[gameState.getTeams().length][];
+    for (int team = 0; team < pieces.length; team++) {
+      Team t = gameState.getTeams()[team];
+      if (t == null) {
+        pieces[team] = new Piece[0];
+        continue;
+      }
+      int size = 0;
+      for (Piece piece : t.getPieces()) size = Math.max(size, PackedBoard.pieceIndex(piece.getId()) + 1);
+      pieces[team] = new Piece[size];
+      for (Piece piece : t.getPieces()) pieces[team][PackedBoard.pieceIndex(piece.getId())] = piece;
+    }
+  }
+
+  /**
+   * Returns a piece by its ID.
+   *
+   * @param pieceId ID in the "p:team_index" format
+   * @return the piece, null if there is no such piece (anymore)
+   */
+  public Piece get(String pieceId) {
+    int colon = pieceId.indexOf(':');
+    int underscore = pieceId.lastIndexOf('_');
+    if (colon == -1 || underscore < colon) return null;
+    try {
+      return get(
+          Integer.parseInt(pieceId, colon + 1, underscore, 10),
+          Integer.parseInt(pieceId, underscore + 1, pieceId.length(), 10));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a piece by its team and piece index.
+   *
+   * @param team team index
+   * @param index piece index
+   * @return the piece, null if there is no such piece (anymore)
+   */
+  public Piece get(int team, int index) {
+    if (team < 0
+        || team >= pieces.length
+        || index < 0
+        || index >= pieces[team].length
+        || gameState.getTeams()[team] == null) return null;
+    return pieces[team][index];
+  }
+
+  /**
+   * Returns the piece standing on a position.
+   *
+   * @param y
+   * @param x
+   * @return the piece, null if the square is not occupied by a piece
+   */
+  public Piece at(int y, int x) {
+    long cell = board.get(y, x);
+    if (PackedBoard.kind(cell) != PackedBoard.PIECE) return null;
+    return get(PackedBoard.team(cell), PackedBoard.piece(cell));
+  }
+
+  /**
+   * Removes a captured piece from the registry and from its Team. The order of the remaining
+   * pieces in the Team stays the same.
+   *
+   * @param team team index of the captured piece
+   * @param index piece index of the captured piece
+   */
+  public void remove(int team, int index) {
+    Piece piece = get(team, index);
+    if (piece == null) return;
+    pieces[team][index] = null;
+    Team t = gameState.getTeams()[team];
+    Piece[] old = t.getPieces();
+    // pieces are ordered by index, so the piece is found at or shortly before its index
+    for (int k = 0, start = Math.min(index, old.length - 1); k < old.length; k++) {
+      int i = (start - k + old.length) % old.length;
+      if (old[i] != piece) continue;
+      Piece[] remaining = new Piece[old.length - 1];
+      System.arraycopy(old, 0, remaining, 0, i);
+      System.arraycopy(old, i + 1, remaining, i, old.length - i - 1);
+      t.setPieces(remaining);
+      return;
+    }
+  }
+
+  /**
+   * Finds a piece in a Team without a registry. As pieces are created in the order of their
+   * index and captures keep that order, the piece is looked up at its index first and searched
+   * backwards from there, so only pieces which got captured before it have to be skipped.
+   *
+   * @param team the Team to search
+   * @param pieceId ID in the "p:team_index" format
+   * @return the piece, null if the Team does not contain it
+   */
+  public static Piece find(Team team, String pieceId) {
+    Piece[] teamPieces = team.getPieces();
+    int start = teamPieces.length - 1;
+    try {
+      start = Math.min(start, PackedBoard.pieceIndex(pieceId));
+    } catch (NumberFormatException e) {
+      // not an indexed ID, search the whole team
+    }
+    for (int i = start; i >= 0; i--) if (teamPieces[i].getId().equals(pieceId)) return teamPieces[i];
+    for (int i = teamPieces.length - 1; i > start; i--)
+      if (teamPieces[i].getId().equals(pieceId)) return teamPieces[i];
+    return null;
+  }
+}
@@ -0,0 +1,70 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.List;
+
+/**
+ * Improves a teams placement for the spaced out and defensive placements, by moving its pieces
+ * around until they got as many possible moves as it can find.
+ * The PiecePlacer starts several runs in parallel and keeps the best result. Which optimizer is
+ * used is configured on the {@link PlacementPool}.
+ */
+public interface PlacementOptimizer {
+
+  /**
+   * Moves pieces on the board to give the team more possible moves. Moved pieces get their new
+   * position set. Has to return once the deadline is reached, leaving the best placement found so
+   * far on the board.
+   *
+   * @param board the board with all pieces placed
+   * @param score MobilityScore listening to board
+   * @param team index of the team to improve
+   * @param movable pieces of the team which may be moved
+   * @param bounds [minY, maxY, minX, maxX] of the squares the pieces may be moved to
+   * @param swapOnly true if the pieces may only swap their positions with each other, false if
+   *     they may only move onto empty squares
+   * @param run number of the parallel run, runs should differ to find different placements
+   * @param deadline System.nanoTime() at which the optimization has to stop
+   */
+  void optimize(
+      PackedBoard board,
+      MobilityScore score,
+      int team,
+      List<Piece> movable,
+      int[] bounds,
+      boolean swapOnly,
+      int run,
+      long deadline);
+
+  /**
+   * Returns the optimizer for a name as used in application.properties.
+   *
+   * @param name "hill-climbing" or "annealing"
+   * @return a new optimizer
+   * @throws IllegalArgumentException if there is no optimizer with that name
+   */
+  static PlacementOptimizer of(String name) {
+    switch (name) {
+      case "hill-climbing":
+        return new HillClimbingOptimizer(10);
+      case "annealing":
+        return new AnnealingOptimizer(200);
+      default:
+        throw new IllegalArgumentException("Unknown placement optimizer " + name);
+    }
+  }
+
+  /**
+   * Swaps the content of two squares on a PackedBoard, a piece and an empty square or two pieces.
+   * The pieces positions have to be updated by the caller.
+   *
+   * @param board
+   * @param a first position
+   * @param b second position
+   */
+  static void swap(PackedBoard board, int[] a, int[] b) {
+    long cell = board.get(a[0], a[1]);
+    board.set(a[0], a[1], board.get(b[0], b[1]));
+    board.set(b[0], b[1], cell);
+  }
+}
@@ -0,0 +1,91 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One work-stealing pool shared by all PiecePlacers for their placement optimization, instead of a
+ * new thread pool per placement. If many games start at once, their placements queue up in the
+ * pool and never use more threads than the parallelism.
+ *
+ * <p>Every placement gets a time budget. The {@link PlacementOptimizer} stops once it is used up
+ * and the best placement found so far is used.
+ *
+ * <p>Configured with {@link #configure(int, Duration, PlacementOptimizer)} before the first game
+ * starts, by default the parallelism is the number of processors, the time budget 10 seconds and
+ * the optimizer hill climbing.
+ */
+public final class PlacementPool {
+  private static final Logger LOG = LoggerFactory.getLogger(PlacementPool.class);
+  private static volatile int parallelism = Runtime.getRuntime().availableProcessors();
+  private static volatile Duration timeBudget = Duration.ofSeconds(10);
+  private static volatile PlacementOptimizer optimizer = PlacementOptimizer.of("hill-climbing");
+  private static ForkJoinPool pool;
+
+  private PlacementPool() {}
+
+  /**
+   * Sets the parallelism, time budget and optimizer. The parallelism cannot change once the pool is
+   * used.
+   *
+   * @param parallelism maximum number of placement threads, also the number of optimizer runs per
+   *     placement, values < 1 use the number of processors
+   * @param timeBudget maximum time for the optimization of one placement
+   * @param optimizer optimizer for the spaced out and defensive placements
+   */
+  public static synchronized void configure(
+      int parallelism, Duration timeBudget, PlacementOptimizer optimizer) {
+    int newParallelism = parallelism < 1 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    if (pool != null && newParallelism != PlacementPool.parallelism) {
+      LOG.warn("Placement pool already started, parallelism stays {}", PlacementPool.parallelism);
+    } else {
+      PlacementPool.parallelism = newParallelism;
+    }
+    PlacementPool.timeBudget = timeBudget;
+    PlacementPool.optimizer = optimizer;
+  }
+
+  /**
+   * @return number of placement threads
+   */
+  public static int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return maximum time for the optimization of one placement
+   */
+  public static Duration timeBudget() {
+    return timeBudget;
+  }
+
+  /**
+   * @return optimizer for the spaced out and defensive placements
+   */
+  public static PlacementOptimizer optimizer() {
+    return optimizer;
+  }
+
+  /**
+   * @return the shared pool, created on first use
+   */
+  static synchronized ForkJoinPool pool() {
+    if (pool == null) {
+      pool =
+          new ForkJoinPool(
+              parallelism,
+              forkJoinPool -> {
+                ForkJoinWorkerThread thread =
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("piece-placer-" + thread.getPoolIndex());
+                return thread;
+              },
+              null,
+              false);
+    }
+    return pool;
+  }
+}
@@ -0,0 +1,195 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+/**
+ * Lets the move generation clamp a pieces reach instead of walking a direction square by square.
+ * It combines two layers:
+ *
+ * <ul>
+ *   <li>a static layer: for every square and direction, how many squares can be walked before a
+ *       block or the edge of the board. Blocks never move during a game, so it is built once and
+ *       only rebuilt if a block gets added or removed.
+ *   <li>a dynamic layer: one bitset per row, column and diagonal marking the squares occupied by
+ *       a piece or base. The first occupied square into a direction is found by scanning the
+ *       bitset of the line, a word (64 squares) at a time.
+ * </ul>
+ *
+ * The table belongs to one PackedBoard, which creates it on first use and keeps it up to date on
+ * every write, before its listeners get notified.
+ */
+final class RayTable implements PackedBoard.SquareListener {
+  // line families: rows, columns, diagonals (y - x constant), anti diagonals (y + x constant)
+  private static final int ROWS = 0;
+  private static final int COLS = 1;
+  private static final int DIAGONALS = 2;
+  private static final int ANTI_DIAGONALS = 3;
+  /** the line family of each direction, indexed like GameUtilities.updatePos */
+  private static final int[] FAMILY =
+      new int[] {ROWS, ROWS, COLS, COLS, DIAGONALS, ANTI_DIAGONALS, ANTI_DIAGONALS, DIAGONALS};
+
+  private final PackedBoard board;
+  private final int rows;
+  private final int cols;
+  private final int[] words; // words per line, per family
+  private final long[][] occupied; // [family][line * words + word]
+  private final int[] blockReach; // [direction * rows * cols + y * cols + x]
+  private boolean blocksChanged = true;
+
+  /**
+   * Creates the table from the boards current squares.
+   *
+   * @param board the board this table belongs to
+   */
+  RayTable(PackedBoard board) {
+    this.board = board;
+    this.rows = board.getRows();
+    this.cols = board.getCols();
+    int rowWords = (cols + 63) / 64;
+    int colWords = (rows + 63) / 64;
+    this.words = new int[] {rowWords, colWords, colWords, colWords};
+    this.occupied =
+        new long[][] {
+          new long[rows * rowWords],
+          new long[cols * colWords],
+          new long[(rows + cols - 1) * colWords],
+          new long[(rows + cols - 1) * colWords]
+        };
+    this.blockReach = new int[8 * rows * cols];
+    for (int y = 0; y < rows; y++)
+      for (int x = 0; x < cols; x++)
+        if (PackedBoard.kind(board.get(y, x)) >= PackedBoard.BASE) setOccupied(y, x, true);
+  }
+
+  @Override
+  public void squareChanged(int y, int x, long oldCell, long newCell) {
+    if (PackedBoard.kind(oldCell) == PackedBoard.BLOCK
+        || PackedBoard.kind(newCell) == PackedBoard.BLOCK) blocksChanged = true;
+    boolean was = PackedBoard.kind(oldCell) >= PackedBoard.BASE;
+    boolean is = PackedBoard.kind(newCell) >= PackedBoard.BASE;
+    if (was != is) setOccupied(y, x, is);
+  }
+
+  /**
+   * Returns how many squares can be walked from a square into a direction before a block or the
+   * edge of the board, ignoring pieces and bases.
+   *
+   * @param direction 0-7, like GameUtilities.updatePos
+   * @param y
+   * @param x
+   * @return number of squares
+   */
+  int blockReach(int direction, int y, int x) {
+    if (blocksChanged) buildBlockReach();
+    return blockReach[direction * rows * cols + y * cols + x];
+  }
+
+  /**
+   * Finds the first square occupied by a piece or base into a direction.
+   *
+   * @param direction 0-7, like GameUtilities.updatePos
+   * @param y
+   * @param x
+   * @param limit the maximum distance to search, at most {@link #blockReach(int, int, int)}
+   * @return the distance to the occupied square, 0 if there is none within the limit
+   */
+  int firstOccupied(int direction, int y, int x, int limit) {
+    int family = FAMILY[direction];
+    int line;
+    int pos;
+    switch (family) {
+      case ROWS:
+        line = y;
+        pos = x;
+        break;
+      case COLS:
+        line = x;
+        pos = y;
+        break;
+      case DIAGONALS:
+        line = y - x + cols - 1;
+        pos = y;
+        break;
+      default:
+        line = y + x;
+        pos = y;
+    }
+    int base = line * words[family];
+    boolean forward =
+        family == ROWS
+            ? GameUtilities.DIRECTION_X[direction] > 0
+            : GameUtilities.DIRECTION_Y[direction] > 0;
+    if (forward) {
+      int found = nextSet(occupied[family], base, pos + 1, pos + limit);
+      return found == -1 ? 0 : found - pos;
+    }
+    int found = previousSet(occupied[family], base, pos - limit, pos - 1);
+    return found == -1 ? 0 : pos - found;
+  }
+
+  /**
+   * @return the lowest set bit in [from, to], -1 if there is none
+   */
+  private static int nextSet(long[] bits, int base, int from, int to) {
+    if (from > to) return -1;
+    for (int word = from >>> 6; word <= to >>> 6; word++) {
+      long value = bits[base + word];
+      if (word == from >>> 6) value &= -1L << from;
+      if (word == to >>> 6) value &= -1L >>> (63 - (to & 63));
+      if (value != 0) return (word << 6) + Long.numberOfTrailingZeros(value);
+    }
+    return -1;
+  }
+
+  /**
+   * @return the highest set bit in [from, to], -1 if there is none
+   */
+  private static int previousSet(long[] bits, int base, int from, int to) {
+    if (from > to) return -1;
+    for (int word = to >>> 6; word >= from >>> 6; word--) {
+      long value = bits[base + word];
+      if (word == to >>> 6) value &= -1L >>> (63 - (to & 63));
+      if (word == from >>> 6) value &= -1L << from;
+      if (value != 0) return (word << 6) + 63 - Long.numberOfLeadingZeros(value);
+    }
+    return -1;
+  }
+
+  private void setOccupied(int y, int x, boolean set) {
+    setBit(ROWS, y, x, set);
+    setBit(COLS, x, y, set);
+    setBit(DIAGONALS, y - x + cols - 1, y, set);
+    setBit(ANTI_DIAGONALS, y + x, y, set);
+  }
+
+  private void setBit(int family, int line, int pos, boolean set) {
+    int index = line * words[family] + (pos >>> 6);
+    if (set) occupied[family][index] |= 1L << pos;
+    else occupied[family][index] &= ~(1L << pos);
+  }
+
+  /**
+   * Builds the static layer. Every direction is filled starting at the edge it walks towards, so
+   * the reach of the next square is always known: a square reaches one further than its neighbour,
+   * or 0 if the neighbour is a block or outside the board.
+   */
+  private void buildBlockReach() {
+    for (int direction = 0; direction < 8; direction++) {
+      int dy = GameUtilities.DIRECTION_Y[direction];
+      int dx = GameUtilities.DIRECTION_X[direction];
+      int offset = direction * rows * cols;
+      for (int i = 0; i < rows; i++) {
+        int y = dy > 0 ? rows - 1 - i : i;
+        for (int j = 0; j < cols; j++) {
+          int x = dx > 0 ? cols - 1 - j : j;
+          int nextY = y + dy;
+          int nextX = x + dx;
+          blockReach[offset + y * cols + x] =
+              !board.inBounds(nextY, nextX)
+                      || PackedBoard.kind(board.get(nextY, nextX)) == PackedBoard.BLOCK
+                  ? 0
+                  : 1 + blockReach[offset + nextY * cols + nextX];
+        }
+      }
+    }
+    blocksChanged = false;
+  }
+}
@@ -0,0 +1,53 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.util.Arrays;
+
+/**
+ * The offsets of the squares at a distance around a position, in the clockwise order of {@link
+ * GameUtilities#fillXTransformations(int[], int)}, starting at the top left corner. Rings only
+ * depend on their distance, so each ring is computed once and shared by all games and grid sizes.
+ * The returned arrays must not be modified.
+ */
+final class RingTable {
+  private static volatile int[][][] rings = new int[1][][]; // [distance] -> {y offsets, x offsets}
+
+  private RingTable() {}
+
+  /**
+   * @param distance distance to the center, at least 1
+   * @return the y offsets of the distance * 8 squares on the ring
+   */
+  static int[] y(int distance) {
+    return ring(distance)[0];
+  }
+
+  /**
+   * @param distance distance to the center, at least 1
+   * @return the x offsets of the distance * 8 squares on the ring
+   */
+  static int[] x(int distance) {
+    return ring(distance)[1];
+  }
+
+  private static int[][] ring(int distance) {
+    int[][][] current = rings;
+    if (distance < current.length) return current[distance];
+    return grow(distance);
+  }
+
+  private static synchronized int[][] grow(int distance) {
+    int[][][] current = rings;
+    if (distance >= current.length) {
+      int[][][] grown = Arrays.copyOf(current, Math.max(distance + 1, current.length * 2));
+      for (int d = current.length; d < grown.length; d++)
+        grown[d] =
+            new int[][] {
+              GameUtilities.fillYTransformations(new int[d * 8], d),
+              GameUtilities.fillXTransformations(new int[d * 8], d)
+            };
+      rings = grown;
+      current = grown;
+    }
+    return current[distance];
+  }
+}
@@ -0,0 +1,134 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta.CellChange;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta.TeamChange;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+
+/**
+ * Remembers the last published GameStates by their version, so the changes since an older version
+ * can be sent instead of the full state.
+ * As published GameStates share unchanged rows and Teams (see {@link NamedStatePublisher}),
+ * keeping them is cheap, and comparing two of them only has to look at rows and Teams which are
+ * not the same objects.
+ */
+public class StateHistory {
+  /** If more squares than this fraction of the grid changed, a full snapshot is sent. */
+  private static final int MAX_CHANGED_FRACTION = 4;
+
+  private final long[] versions;
+  private final GameState[] states;
+  private int latest = -1;
+
+  /**
+   * @param capacity how many versions are kept
+   */
+  public StateHistory(int capacity) {
+    this.versions = new long[capacity];
+    this.states = new GameState[capacity];
+    for (int i = 0; i < capacity; i++) this.versions[i] = -1;
+  }
+
+  /**
+   * Remembers the published GameState of a version. Versions older than the latest recorded
+   * one get ignored.
+   *
+   * @param version the state version
+   * @param state the published GameState, null if there is none yet
+   */
+  public synchronized void record(long version, GameState state) {
+    if (latest != -1 && versions[latest] >= version) return;
+    latest = (latest + 1) % versions.length;
+    versions[latest] = version;
+    states[latest] = state;
+  }
+
+  /**
+   * Creates the changes from an older version to the latest recorded one. If the older version is
+   * not remembered anymore or the changes are too big, the delta contains the full latest state.
+   *
+   * @param since the version the client got
+   * @return the changes since that version, null if nothing got recorded yet
+   */
+  public synchronized GameStateDelta since(long since) {
+    if (latest == -1) return null;
+    long version = versions[latest];
+    GameState to = states[latest];
+    GameState from = null;
+    for (int i = 0; i < versions.length; i++) if (versions[i] == since) from = states[i];
+    GameStateDelta delta = from == null || to == null ? null : delta(from, to);
+    if (delta == null) {
+      if (to == null) return null;
+      delta = new GameStateDelta();
+      delta.setFull(true);
+      delta.setState(to);
+      delta.setCurrentTeam(to.getCurrentTeam());
+      delta.setLastMove(to.getLastMove());
+    }
+    delta.setSince(since);
+    delta.setVersion(version);
+    return delta;
+  }
+
+  /**
+   * Compares two published GameStates.
+   *
+   * @param from the older GameState
+   * @param to the newer GameState
+   * @return the changes, null if they cannot be expressed as a delta
+   */
+  static GameStateDelta delta(GameState from, GameState to) {
+    String[][] fromGrid = from.getGrid();
+    String[][] toGrid = to.getGrid();
+    if (fromGrid.length != toGrid.length || from.getTeams().length != to.getTeams().length)
+      return null;
+
+    int squares = toGrid.length == 0 ? 0 : toGrid.length * toGrid[0].length;
+    int maxChanges = squares / MAX_CHANGED_FRACTION;
+    ArrayList<CellChange> cells = new ArrayList<CellChange>();
+    for (int y = 0; y < toGrid.length; y++) {
+      if (fromGrid[y] == toGrid[y]) continue; // shared row, nothing changed
+      if (fromGrid[y].length != toGrid[y].length) return null;
+      for (int x = 0; x < toGrid[y].length; x++)
+        if (!fromGrid[y][x].equals(toGrid[y][x]))
+          cells.add(new CellChange(new int[] {y, x}, toGrid[y][x]));
+      if (cells.size() > maxChanges) return null;
+    }
+
+    ArrayList<TeamChange> teams = new ArrayList<TeamChange>();
+    for (int i = 0; i < to.getTeams().length; i++) {
+      Team fromTeam = from.getTeams()[i];
+      Team toTeam = to.getTeams()[i];
+      if (fromTeam == toTeam) continue; // shared Team, nothing changed
+      if (fromTeam == null || toTeam != null && !fromTeam.getId().equals(toTeam.getId()))
+        return null;
+      TeamChange change = new TeamChange();
+      change.setId(fromTeam.getId());
+      if (toTeam == null) {
+        change.setRemoved(true);
+        teams.add(change);
+        continue;
+      }
+      HashSet<String> remaining = new HashSet<String>();
+      for (Piece piece : toTeam.getPieces()) remaining.add(piece.getId());
+      ArrayList<String> removed = new ArrayList<String>();
+      for (Piece piece : fromTeam.getPieces())
+        if (!remaining.contains(piece.getId())) removed.add(piece.getId());
+      if (removed.isEmpty() && fromTeam.getFlags() == toTeam.getFlags()) continue;
+      change.setFlags(toTeam.getFlags());
+      change.setRemovedPieces(removed.toArray(new String[removed.size()]));
+      teams.add(change);
+    }
+
+    GameStateDelta delta = new GameStateDelta();
+    delta.setCells(cells.toArray(new CellChange[cells.size()]));
+    delta.setTeams(teams.toArray(new TeamChange[teams.size()]));
+    delta.setCurrentTeam(to.getCurrentTeam());
+    delta.setLastMove(to.getLastMove());
+    return delta;
+  }
+}
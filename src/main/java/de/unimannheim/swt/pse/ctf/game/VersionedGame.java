@@ -0,0 +1,64 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+
+/**
+ * A {@link Game} which counts the changes to its {@link GameState}.
+ * The {@link Game} interface stays untouched, the controller checks if a game additionally
+ * implements this interface and uses the version and listeners to cache and push states.
+ */
+public interface VersionedGame extends Game {
+
+    /**
+     * Returns the version of the state returned by {@link Game#getCurrentGameState()}.
+     * The version increases every time the state changes and never decreases.
+     * It has to be read before the state, so a cached state never belongs to an older version.
+     *
+     * @return current state version
+     */
+    long getStateVersion();
+
+    /**
+     * Returns the changes to the state since an older version. If the older version is unknown or
+     * too old, the delta contains the full current state instead.
+     *
+     * @param since the version the client got
+     * @return the changes since that version
+     */
+    GameStateDelta getStateDelta(long since);
+
+    /**
+     * Adds a listener which gets notified after every state change.
+     * Listeners are called on the thread which changed the state and must not block.
+     *
+     * @param listener the listener to add
+     */
+    void addStateListener(StateListener listener);
+
+    /**
+     * Removes a listener added by {@link #addStateListener(StateListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    void removeStateListener(StateListener listener);
+
+    /**
+     * Returns every move the current team can make, as they would be sent to
+     * {@link Game#makeMove(Move)}. The returned moves must not be modified.
+     *
+     * @return the current teams moves, empty if the game is not running
+     */
+    Move[] getLegalMoves();
+
+    /** Gets notified if the state of a {@link VersionedGame} changes. */
+    interface StateListener {
+        /**
+         * Called after the state changed.
+         *
+         * @param version the new state version
+         */
+        void stateChanged(long version);
+    }
+}
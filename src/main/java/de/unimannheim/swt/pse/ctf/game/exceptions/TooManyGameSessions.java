@@ -0,0 +1,14 @@
+package de.unimannheim.swt.pse.ctf.game.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Represents a special exception (maximum number of game sessions reached) that is marked with a
+ * HTTP status if thrown.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many game sessions")
+public class TooManyGameSessions extends RuntimeException {
+
+  private static final long serialVersionUID = -4312207851734582163L;
+}
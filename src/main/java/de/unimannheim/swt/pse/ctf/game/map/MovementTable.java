@@ -0,0 +1,74 @@
+package de.unimannheim.swt.pse.ctf.game.map;
+
+/**
+ * The {@link Movement} and attack power of a {@link PieceDescription}, compiled into an immutable
+ * table. The move generation reads the reach of a direction from an array instead of switching
+ * over the {@link Directions} getters.
+ *
+ * <p>The descriptions stay untouched, the engine keeps the tables of its pieces next to its board
+ * and compiles every description once (see PackedBoard#movement).
+ */
+public final class MovementTable {
+  private final int[] reach; // indexed like GameUtilities.updatePos
+  private final ShapeType shape;
+  private final int attackPower;
+
+  private MovementTable(PieceDescription description) {
+    Movement movement = description.getMovement();
+    Directions directions = movement.getDirections();
+    if (directions != null) {
+      this.reach =
+          new int[] {
+            directions.getLeft(),
+            directions.getRight(),
+            directions.getUp(),
+            directions.getDown(),
+            directions.getUpLeft(),
+            directions.getUpRight(),
+            directions.getDownLeft(),
+            directions.getDownRight()
+          };
+      this.shape = null;
+    } else {
+      this.reach = null;
+      this.shape = movement.getShape() == null ? null : movement.getShape().getType();
+    }
+    this.attackPower = description.getAttackPower();
+  }
+
+  /**
+   * Compiles a description into a new table. Later changes to the description are not reflected.
+   *
+   * @param description the pieces description
+   * @return the compiled movement
+   */
+  public static MovementTable compile(PieceDescription description) {
+    return new MovementTable(description);
+  }
+
+  /**
+   * @return true if the piece moves into directions, false if it moves in a shape
+   */
+  public boolean hasDirections() {
+    return reach != null;
+  }
+
+  /**
+   * @param direction 0-7, like GameUtilities.updatePos
+   * @return the reach into that direction, 0 for shape movement
+   */
+  public int reach(int direction) {
+    return reach == null ? 0 : reach[direction];
+  }
+
+  /**
+   * @return the ShapeType, null for direction movement
+   */
+  public ShapeType shape() {
+    return shape;
+  }
+
+  public int attackPower() {
+    return attackPower;
+  }
+}
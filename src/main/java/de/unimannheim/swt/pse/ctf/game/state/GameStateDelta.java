@@ -0,0 +1,208 @@
+package de.unimannheim.swt.pse.ctf.game.state;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * This class represents the changes between two versions of a {@link GameState}.
+ * If the changes cannot be expressed as a delta, the full state is sent instead.
+ */
+public class GameStateDelta {
+    @Schema(
+            description = "the version the changes are based on, as requested by the client"
+    )
+    private long since;
+    @Schema(
+            description = "the version of the game state after applying the changes"
+    )
+    private long version;
+    @Schema(
+            description = "true if this is no delta but a full snapshot, which is then found in state"
+    )
+    private boolean full;
+    @Schema(
+            description = "the full game state, only set if full is true"
+    )
+    private GameState state;
+    @Schema(
+            description = "squares of the grid which changed, with their new content"
+    )
+    private CellChange[] cells;
+    @Schema(
+            description = "teams which changed (flags, captured pieces or removed from the game)"
+    )
+    private TeamChange[] teams;
+    @Schema(
+            description = "the current team making the next move"
+    )
+    private int currentTeam;
+    @Schema(
+            description = "the last move"
+    )
+    private Move lastMove;
+
+    public GameStateDelta() {
+        this.cells = new CellChange[0];
+        this.teams = new TeamChange[0];
+        this.currentTeam = -1;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public void setSince(long since) {
+        this.since = since;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public void setState(GameState state) {
+        this.state = state;
+    }
+
+    public CellChange[] getCells() {
+        return cells;
+    }
+
+    public void setCells(CellChange[] cells) {
+        this.cells = cells;
+    }
+
+    public TeamChange[] getTeams() {
+        return teams;
+    }
+
+    public void setTeams(TeamChange[] teams) {
+        this.teams = teams;
+    }
+
+    public int getCurrentTeam() {
+        return currentTeam;
+    }
+
+    public void setCurrentTeam(int currentTeam) {
+        this.currentTeam = currentTeam;
+    }
+
+    public Move getLastMove() {
+        return lastMove;
+    }
+
+    public void setLastMove(Move lastMove) {
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * A changed square of the grid.
+     */
+    public static class CellChange {
+        @Schema(
+                description = "position of the square on the board (grid) as [y, x]"
+        )
+        private int[] position;
+        @Schema(
+                description = "the new content of the square, in the same format as the grid"
+        )
+        private String value;
+
+        public CellChange() {
+        }
+
+        public CellChange(int[] position, String value) {
+            this.position = position;
+            this.value = value;
+        }
+
+        public int[] getPosition() {
+            return position;
+        }
+
+        public void setPosition(int[] position) {
+            this.position = position;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * A changed team.
+     */
+    public static class TeamChange {
+        @Schema(
+                description = "unique identifier of the team"
+        )
+        private String id;
+        @Schema(
+                description = "true if the team got removed from the game"
+        )
+        private boolean removed;
+        @Schema(
+                description = "the teams number of flags"
+        )
+        private int flags;
+        @Schema(
+                description = "IDs of the teams pieces which got captured"
+        )
+        private String[] removedPieces;
+
+        public TeamChange() {
+            this.removedPieces = new String[0];
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+
+        public void setRemoved(boolean removed) {
+            this.removed = removed;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        public void setFlags(int flags) {
+            this.flags = flags;
+        }
+
+        public String[] getRemovedPieces() {
+            return removedPieces;
+        }
+
+        public void setRemovedPieces(String[] removedPieces) {
+            this.removedPieces = removedPieces;
+        }
+    }
+}
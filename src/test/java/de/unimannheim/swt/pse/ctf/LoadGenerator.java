@@ -0,0 +1,413 @@
+package de.unimannheim.swt.pse.ctf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unimannheim.swt.pse.ctf.game.EngineTools;
+import de.unimannheim.swt.pse.ctf.game.NameIDChanger;
+import de.unimannheim.swt.pse.ctf.game.PackedBoard;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays random games against a running server through its REST API and reports the throughput
+ * and latencies per endpoint, to size the hardware for tournaments.
+ *
+ * <p>Every session gets created from a template in src/main/resources/maptemplates, all its teams
+ * join, then the current team repeatedly gets the state and makes a random legal move, until the
+ * game is over or the maximum number of moves is reached. Moves of all sessions together are
+ * limited to a rate. Run it from the test classpath, the options have the form --name=value:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=de.unimannheim.swt.pse.ctf.LoadGenerator \
+ *   -Dexec.args="--url=http://localhost:8888 --sessions=100 --concurrency=16 --rate=500"
+ * </pre>
+ */
+public class LoadGenerator {
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+  private final AtomicLong nextMove = new AtomicLong(System.nanoTime());
+  private final AtomicInteger moves = new AtomicInteger();
+  private final AtomicInteger finishedGames = new AtomicInteger();
+
+  private final String url;
+  private final int sessions;
+  private final int concurrency;
+  private final long moveIntervalNanos;
+  private final int maxMoves;
+  private final JsonNode template;
+
+  /**
+   * @param url base url of the server, e.g. http://localhost:8888
+   * @param sessions number of games to play
+   * @param concurrency number of games played at the same time
+   * @param rate maximum number of moves per second of all games together, 0 for no limit
+   * @param maxMoves games get given up after this many moves
+   * @param template name of a template in src/main/resources/maptemplates, without .json
+   */
+  public LoadGenerator(
+      String url, int sessions, int concurrency, int rate, int maxMoves, String template) {
+    this.url = url + "/api/gamesession";
+    this.sessions = sessions;
+    this.concurrency = concurrency;
+    this.moveIntervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+    this.maxMoves = maxMoves;
+    this.template = readTemplate(template);
+    for (String endpoint : new String[] {"create", "join", "state", "move", "giveup", "delete"})
+      stats.put(endpoint, new EndpointStats());
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] option = arg.replaceFirst("^--", "").split("=", 2);
+      options.put(option[0], option.length > 1 ? option[1] : "");
+    }
+    LoadGenerator generator =
+        new LoadGenerator(
+            options.getOrDefault("url", "http://localhost:8888"),
+            Integer.parseInt(options.getOrDefault("sessions", "20")),
+            Integer.parseInt(options.getOrDefault("concurrency", "8")),
+            Integer.parseInt(options.getOrDefault("rate", "0")),
+            Integer.parseInt(options.getOrDefault("max-moves", "200")),
+            options.getOrDefault("template", "10x10_2teams_example"));
+    generator.report(generator.run(), System.out);
+  }
+
+  /**
+   * Plays all sessions and waits for them to finish.
+   *
+   * @return the time it took
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public Duration run() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    long start = System.nanoTime();
+    nextMove.set(start);
+    List<Future<?>> games = new ArrayList<>();
+    for (int i = 0; i < sessions; i++) games.add(executor.submit(this::playGame));
+    executor.shutdown();
+    for (Future<?> game : games) {
+      try {
+        game.get();
+      } catch (ExecutionException e) {
+        e.getCause().printStackTrace();
+      }
+    }
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+
+  /**
+   * @param endpoint one of create, join, state, move, giveup, delete
+   * @return the stats of all requests to the endpoint
+   */
+  public EndpointStats getStats(String endpoint) {
+    return stats.get(endpoint);
+  }
+
+  /**
+   * @return number of moves the server accepted
+   */
+  public int getMoves() {
+    return moves.get();
+  }
+
+  /**
+   * @return number of games which ended, not counting given up games
+   */
+  public int getFinishedGames() {
+    return finishedGames.get();
+  }
+
+  /**
+   * Prints throughput, p50 and p99 latency and response status counts per endpoint.
+   *
+   * @param elapsed time the run took
+   * @param out where to print to
+   */
+  public void report(Duration elapsed, PrintStream out) {
+    double seconds = elapsed.toNanos() / 1e9;
+    out.printf(
+        "%d sessions, %d moves, %d games over in %.1f s%n",
+        sessions, moves.get(), finishedGames.get(), seconds);
+    out.printf(
+        "%-8s %8s %10s %10s %10s  %s%n",
+        "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "status");
+    for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+      EndpointStats endpoint = entry.getValue();
+      out.printf(
+          "%-8s %8d %10.1f %10.2f %10.2f  %s%n",
+          entry.getKey(),
+          endpoint.count(),
+          endpoint.count() / seconds,
+          endpoint.percentileMillis(50),
+          endpoint.percentileMillis(99),
+          endpoint.statuses());
+    }
+  }
+
+  /** Creates a session, plays it and deletes it again, even if the game could not be played. */
+  private void playGame() {
+    ObjectNode request = mapper.createObjectNode();
+    request.set("template", template);
+    Response created = send("create", HttpRequest.newBuilder(URI.create(url)), request);
+    if (created.status != 200) return;
+    String sessionUrl = url + "/" + created.json().get("id").asText();
+    try {
+      play(sessionUrl);
+    } finally {
+      send("delete", HttpRequest.newBuilder(URI.create(sessionUrl)).DELETE(), null);
+    }
+  }
+
+  /**
+   * Joins all teams of a session and plays until the game is over. If the maximum number of moves
+   * is reached first, the current team gives up.
+   *
+   * @param sessionUrl url of the session
+   */
+  private void play(String sessionUrl) {
+    int teams = template.get("teams").asInt();
+    Map<String, String> secrets = new HashMap<>();
+    for (int team = 0; team < teams; team++) {
+      ObjectNode join = mapper.createObjectNode().put("teamId", "team" + team);
+      Response joined =
+          send("join", HttpRequest.newBuilder(URI.create(sessionUrl + "/join")), join);
+      if (joined.status != 200) return;
+      secrets.put(joined.json().get("teamId").asText(), joined.json().get("teamSecret").asText());
+    }
+
+    Random random = new Random();
+    String currentTeam = null;
+    for (int move = 0; move < maxMoves; move++) {
+      Response state =
+          send("state", HttpRequest.newBuilder(URI.create(sessionUrl + "/state")), null);
+      if (state.status != 200) break;
+      GameState gameState = state.as(GameState.class);
+      if (gameState.getCurrentTeam() < 0) { // the last move ended the game
+        finishedGames.incrementAndGet();
+        currentTeam = null;
+        break;
+      }
+      currentTeam = gameState.getTeams()[gameState.getCurrentTeam()].getId();
+
+      ObjectNode moveRequest = randomMove(gameState, random);
+      if (moveRequest == null) break;
+      moveRequest.put("teamId", currentTeam).put("teamSecret", secrets.get(currentTeam));
+      awaitMoveSlot();
+      Response moved =
+          send("move", HttpRequest.newBuilder(URI.create(sessionUrl + "/move")), moveRequest);
+      if (moved.status == 200) {
+        moves.incrementAndGet();
+      } else if (moved.status == 410) {
+        finishedGames.incrementAndGet();
+        currentTeam = null;
+        break;
+      }
+    }
+
+    if (currentTeam != null) {
+      ObjectNode giveUp =
+          mapper
+              .createObjectNode()
+              .put("teamId", currentTeam)
+              .put("teamSecret", secrets.get(currentTeam));
+      send("giveup", HttpRequest.newBuilder(URI.create(sessionUrl + "/giveup")), giveUp);
+    }
+  }
+
+  /**
+   * Picks a random legal move of the current team. The state uses team names, so the moves are
+   * generated on a copy using team IDs.
+   *
+   * @return move request without team and secret, null if the team cannot move
+   */
+  private ObjectNode randomMove(GameState gameState, Random random) {
+    Map<Integer, String> integerToTeam = new HashMap<>();
+    Map<String, Integer> teamToInteger = new HashMap<>();
+    for (int team = 0; team < gameState.getTeams().length; team++) {
+      if (gameState.getTeams()[team] == null) continue;
+      integerToTeam.put(team, gameState.getTeams()[team].getId());
+      teamToInteger.put(gameState.getTeams()[team].getId(), team);
+    }
+    GameState idState = new NameIDChanger(integerToTeam, teamToInteger).putGameStateIDs(gameState);
+    PackedBoard board = PackedBoard.of(idState);
+
+    Team team = idState.getTeams()[idState.getCurrentTeam()];
+    List<Integer> pieces = new ArrayList<>();
+    for (int piece = 0; piece < team.getPieces().length; piece++) pieces.add(piece);
+    Collections.shuffle(pieces, random);
+    for (int piece : pieces) {
+      List<int[]> possible = EngineTools.getPossibleMoves(board, team.getPieces()[piece]);
+      if (possible.isEmpty()) continue;
+      Piece named = gameState.getTeams()[gameState.getCurrentTeam()].getPieces()[piece];
+      int[] newPosition = possible.get(random.nextInt(possible.size()));
+      ObjectNode move = mapper.createObjectNode().put("pieceId", named.getId());
+      move.putArray("newPosition").add(newPosition[0]).add(newPosition[1]);
+      return move;
+    }
+    return null;
+  }
+
+  /** Waits until the next move is allowed by the rate limit. */
+  private void awaitMoveSlot() {
+    if (moveIntervalNanos == 0) return;
+    long slot = nextMove.getAndAdd(moveIntervalNanos);
+    long wait = slot - System.nanoTime();
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Sends a request and records its latency and status.
+   *
+   * @param endpoint name the stats are recorded for
+   * @param request the request, a POST if body is not null
+   * @param body JSON body
+   * @return the response, status 0 if the request failed
+   */
+  private Response send(String endpoint, HttpRequest.Builder request, JsonNode body) {
+    if (body != null) {
+      request
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+    long start = System.nanoTime();
+    int status;
+    byte[] responseBody = new byte[0];
+    try {
+      HttpResponse<byte[]> response =
+          client.send(
+              request.timeout(Duration.ofSeconds(30)).build(),
+              HttpResponse.BodyHandlers.ofByteArray());
+      status = response.statusCode();
+      responseBody = response.body();
+    } catch (IOException e) {
+      status = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      status = 0;
+    }
+    stats.get(endpoint).record(System.nanoTime() - start, status);
+    return new Response(status, responseBody);
+  }
+
+  private JsonNode readTemplate(String name) {
+    try (InputStream in = getClass().getResourceAsStream("/maptemplates/" + name + ".json")) {
+      if (in == null) throw new IllegalArgumentException("No map template " + name);
+      return mapper.readTree(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Status and body of a response. */
+  private class Response {
+    final int status;
+    final byte[] body;
+
+    Response(int status, byte[] body) {
+      this.status = status;
+      this.body = body;
+    }
+
+    JsonNode json() {
+      try {
+        return mapper.readTree(body);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    <T> T as(Class<T> type) {
+      try {
+        return mapper.readValue(body, type);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** Latencies and status counts of the requests to one endpoint. */
+  public static class EndpointStats {
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+
+    void record(long nanos, int status) {
+      latencies.add(nanos);
+      statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * @return number of requests
+     */
+    public int count() {
+      return latencies.size();
+    }
+
+    /**
+     * @param status HTTP status, 0 for failed requests
+     * @return number of responses with the status
+     */
+    public int count(int status) {
+      AtomicInteger count = statuses.get(status);
+      return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return latency in milliseconds below which the percentile of requests were, 0 without
+     *     requests
+     */
+    public double percentileMillis(double percentile) {
+      long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+      if (sorted.length == 0) return 0;
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * @return the status counts, like {200=10, 409=1}
+     */
+    public String statuses() {
+      return new TreeMap<>(statuses).toString();
+    }
+  }
+}
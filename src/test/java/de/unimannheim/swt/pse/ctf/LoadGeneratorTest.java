@@ -0,0 +1,41 @@
+package de.unimannheim.swt.pse.ctf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/** Runs a small load test against the server, every game has to be created and played. */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class LoadGeneratorTest {
+
+  @LocalServerPort private int port;
+
+  @Test
+  void testLoadGenerator() throws InterruptedException {
+    LoadGenerator generator =
+        new LoadGenerator("http://localhost:" + port, 4, 2, 0, 20, "10x10_2teams_example");
+    generator.run();
+
+    assertEquals(4, generator.getStats("create").count(200));
+    assertEquals(8, generator.getStats("join").count(200));
+    assertTrue(generator.getMoves() > 0);
+    assertEquals(generator.getMoves(), generator.getStats("move").count(200));
+    assertEquals(4, generator.getStats("delete").count(200));
+    assertTrue(generator.getStats("move").percentileMillis(99) > 0);
+  }
+
+  @Test
+  void testGamesPlayedToTheEnd() throws InterruptedException {
+    LoadGenerator generator =
+        new LoadGenerator("http://localhost:" + port, 4, 2, 0, 500, "serverTester");
+    generator.run();
+
+    assertEquals(4, generator.getStats("create").count(200));
+    assertTrue(generator.getFinishedGames() > 0);
+    assertEquals(4, generator.getStats("delete").count(200));
+  }
+}
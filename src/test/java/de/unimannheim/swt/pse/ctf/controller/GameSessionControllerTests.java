@@ -1,7 +1,9 @@
 package de.unimannheim.swt.pse.ctf.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.unimannheim.swt.pse.ctf.controller.data.GameSessionRequest;
@@ -12,6 +14,7 @@ import de.unimannheim.swt.pse.ctf.controller.data.JoinGameResponse;
 import de.unimannheim.swt.pse.ctf.controller.data.MoveRequest;
 import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
 import java.io.IOException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +22,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 /**
  * Simple system 'live' test for {@link GameSessionController}.
@@ -88,6 +96,14 @@ public class GameSessionControllerTests {
             GameState.class,
             gameSessionId);
 
+    // the current team got moves to choose from
+    Move[] legalMoves =
+        restTemplate.getForObject(
+            "http://localhost:" + port + "/api/gamesession/{gameSessionId}/moves",
+            Move[].class,
+            gameSessionId);
+    assertTrue(legalMoves.length > 0);
+
     // make some fake move
     MoveRequest moveRequest = new MoveRequest();
     moveRequest.setTeamId(joinGameResponse1.getTeamId());
@@ -116,6 +132,49 @@ public class GameSessionControllerTests {
     restTemplate.delete("http://localhost:" + port + "/api/gamesession/{sessionId}", gameSessionId);
   }
 
+  @Test
+  void testStateNotModified() throws Exception {
+    GameSessionRequest gameSessionRequest = new GameSessionRequest();
+    gameSessionRequest.setTemplate(createGameTemplate());
+    String gameSessionId =
+        restTemplate
+            .postForObject(
+                "http://localhost:" + port + "/api/gamesession",
+                gameSessionRequest,
+                GameSessionResponse.class)
+            .getId();
+    String stateUrl = "http://localhost:" + port + "/api/gamesession/{gameSessionId}/state";
+
+    ResponseEntity<GameState> first = restTemplate.getForEntity(stateUrl, GameState.class, gameSessionId);
+    assertEquals(HttpStatus.OK, first.getStatusCode());
+    String eTag = first.getHeaders().getETag();
+    assertNotNull(eTag);
+
+    // unchanged state
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(eTag);
+    ResponseEntity<GameState> notModified =
+        restTemplate.exchange(
+            stateUrl, HttpMethod.GET, new HttpEntity<>(headers), GameState.class, gameSessionId);
+    assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+
+    // a team joined, the state changed
+    JoinGameRequest team1 = new JoinGameRequest();
+    team1.setTeamId("team1");
+    restTemplate.postForObject(
+        "http://localhost:" + port + "/api/gamesession/{gameSessionId}/join",
+        team1,
+        JoinGameResponse.class,
+        gameSessionId);
+    ResponseEntity<GameState> changed =
+        restTemplate.exchange(
+            stateUrl, HttpMethod.GET, new HttpEntity<>(headers), GameState.class, gameSessionId);
+    assertEquals(HttpStatus.OK, changed.getStatusCode());
+    assertNotEquals(eTag, changed.getHeaders().getETag());
+
+    restTemplate.delete("http://localhost:" + port + "/api/gamesession/{sessionId}", gameSessionId);
+  }
+
   MapTemplate createGameTemplate() throws IOException {
     ObjectMapper objectMapper = new ObjectMapper();
 
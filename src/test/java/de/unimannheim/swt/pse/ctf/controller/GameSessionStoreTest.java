@@ -0,0 +1,91 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.unimannheim.swt.pse.ctf.controller.data.GameSessionResponse;
+import de.unimannheim.swt.pse.ctf.game.Game;
+import de.unimannheim.swt.pse.ctf.game.GameEngine;
+import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyGameSessions;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class GameSessionStoreTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ObjectWriter WRITER = StateCache.writer(MAPPER);
+
+  @Test
+  void testIdleSessionsRemoved() throws IOException {
+    GameSessionStore store = createStore(2);
+    GameSession idle = new GameSession(createGame(), WRITER);
+    store.add("idle", idle);
+    store.add("used", new GameSession(createGame(), WRITER));
+    long now = System.currentTimeMillis();
+    store.get("used").touch(now + 50_000);
+
+    store.sweep(now + 61_000);
+    assertNull(store.get("idle"));
+    assertNull(store.getArchived("idle"));
+    assertNotNull(store.get("used"));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  void testFinishedSessionsArchived() throws IOException {
+    GameSessionStore store = createStore(2);
+    Game game = createGame();
+    game.joinGame("team1");
+    game.joinGame("team2");
+    store.add("finished", new GameSession(game, WRITER));
+    long now = System.currentTimeMillis();
+
+    store.sweep(now); // running
+    GameState state = game.getCurrentGameState();
+    game.giveUp(state.getTeams()[state.getCurrentTeam()].getId());
+    store.sweep(now + 1_000); // seen as finished
+    assertNotNull(store.get("finished"));
+
+    store.sweep(now + 12_000);
+    assertNull(store.get("finished"));
+    GameSessionResponse archived = store.getArchived("finished");
+    assertEquals("finished", archived.getId());
+    assertTrue(archived.isGameOver());
+    assertNotNull(archived.getGameEnded());
+  }
+
+  @Test
+  void testMaxSessions() throws IOException {
+    GameSessionStore store = createStore(1);
+    GameSession first = new GameSession(createGame(), WRITER);
+    store.add("first", first);
+    assertThrows(TooManyGameSessions.class, store::checkCapacity);
+    assertThrows(TooManyGameSessions.class, () -> store.add("second", new GameSession(createGame(), WRITER)));
+    assertSame(first, store.remove("first"));
+    store.add("second", new GameSession(createGame(), WRITER));
+    assertEquals(1, store.size());
+  }
+
+  private static GameSessionStore createStore(int maxSessions) {
+    return new GameSessionStore(
+        maxSessions, Duration.ofMinutes(1), Duration.ofSeconds(10), 10, Duration.ofSeconds(30));
+  }
+
+  private Game createGame() throws IOException {
+    MapTemplate template =
+        MAPPER.readValue(
+            getClass().getResourceAsStream("/maptemplates/10x10_2teams_example.json"),
+            MapTemplate.class);
+    Game game = new GameEngine();
+    game.create(template);
+    return game;
+  }
+}
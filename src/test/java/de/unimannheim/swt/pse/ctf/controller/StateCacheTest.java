@@ -0,0 +1,48 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class StateCacheTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void testSameAsObjectMapper() throws Exception {
+    GameState state = new GameState();
+    state.setGrid(new String[][] {{"b:eins", "", "p:eins_0"}, {"b", "", ""}, {"", "", "b:zwei"}});
+
+    ObjectWriter writer = StateCache.writer(MAPPER);
+    assertEquals(MAPPER.writeValueAsString(state), serializeRows(new StateCache(writer), state));
+    assertEquals(MAPPER.writeValueAsString(state), writer.writeValueAsString(state));
+  }
+
+  /** Rows shared with the last serialized grid are written from their cached JSON. */
+  @Test
+  void testSharedRowsCached() throws Exception {
+    StateCache cache = new StateCache(StateCache.writer(MAPPER));
+    String[] shared = {"b:eins", "p:eins_0"};
+    GameState first = new GameState();
+    first.setGrid(new String[][] {shared, {"", ""}});
+    serializeRows(cache, first);
+
+    shared[1] = "changed"; // published rows never change, so the cache does not notice
+    GameState second = new GameState();
+    second.setGrid(new String[][] {shared, {"p:eins_0", ""}});
+    String json = serializeRows(cache, second);
+
+    assertTrue(json.contains("[[\"b:eins\",\"p:eins_0\"],[\"p:eins_0\",\"\"]]"));
+    GameState third = new GameState();
+    third.setGrid(new String[][] {shared.clone(), {"", ""}});
+    assertEquals(MAPPER.writeValueAsString(third), serializeRows(cache, third));
+  }
+
+  private static String serializeRows(StateCache cache, GameState state) {
+    return new String(cache.serializeRows(state), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,80 @@
+package de.unimannheim.swt.pse.ctf.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unimannheim.swt.pse.ctf.controller.data.StateEvent;
+import de.unimannheim.swt.pse.ctf.game.GameEngine;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class StateEventsTest {
+
+  /**
+   * State changes only queue one write, the game thread never sends itself. The last event carries
+   * the final version and the game over.
+   */
+  @Test
+  void testSentOnExecutor() throws IOException {
+    Queue<Runnable> sender = new ArrayDeque<Runnable>();
+    GameEngine game = new GameEngine();
+    game.create(
+        new ObjectMapper()
+            .readValue(
+                getClass().getResourceAsStream("/maptemplates/10x10_2teams_example.json"),
+                MapTemplate.class));
+    StateEvents events = new StateEvents(game, sender::add);
+    RecordingEmitter emitter = new RecordingEmitter();
+    events.subscribe(emitter);
+    assertEquals(1, emitter.events.size());
+
+    game.joinGame("team1");
+    game.joinGame("team2");
+    assertEquals(1, sender.size());
+    sender.poll().run();
+    assertEquals(2, emitter.events.size());
+    assertFalse(emitter.last().isGameOver());
+
+    GameState state = game.getCurrentGameState();
+    game.giveUp(state.getTeams()[state.getCurrentTeam()].getId());
+    assertEquals(1, sender.size());
+    sender.poll().run();
+    assertEquals(3, emitter.events.size());
+    assertEquals(game.getStateVersion(), emitter.last().getVersion());
+    assertTrue(emitter.last().isGameOver());
+    assertTrue(emitter.completed);
+    events.close();
+  }
+
+  /** Records the StateEvents sent to it instead of writing them to a response. */
+  private static class RecordingEmitter extends SseEmitter {
+    final List<StateEvent> events = new ArrayList<StateEvent>();
+    boolean completed;
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      for (DataWithMediaType data : builder.build()) {
+        if (data.getData() instanceof StateEvent) events.add((StateEvent) data.getData());
+      }
+    }
+
+    @Override
+    public void complete() {
+      completed = true;
+    }
+
+    StateEvent last() {
+      return events.get(events.size() - 1);
+    }
+  }
+}
@@ -4,14 +4,17 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.gson.Gson;
 import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyPiecesException;
 import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
 import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
 import de.unimannheim.swt.pse.ctf.game.state.Piece;
 import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.time.Duration;
 import java.util.Arrays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -103,6 +106,63 @@ class BoardControllerTest {
     //    printGrid(bordi.gameState);
   }
 
+  /** A second game on the same template gets the cached placement, which equals a new one. */
+  @Test
+  void testInitPiecesCached() throws TooManyPiecesException {
+    MapTemplate template = TestValues.getTestTemplate();
+    template.setTeams(2);
+    template.setPlacement(PlacementType.spaced_out);
+    InitialBoardCache.configure(0);
+    GameState uncached = createPlaced(template);
+    InitialBoardCache.configure(64);
+    GameState first = createPlaced(template);
+    GameState second = createPlaced(template);
+
+    assertArrayEquals(uncached.getGrid(), first.getGrid());
+    assertArrayEquals(first.getGrid(), second.getGrid());
+    assertTrue(first.getGrid() != second.getGrid());
+    for (int team = 0; team < 2; team++)
+      for (int i = 0; i < first.getTeams()[team].getPieces().length; i++)
+        assertArrayEquals(
+            first.getTeams()[team].getPieces()[i].getPosition(),
+            second.getTeams()[team].getPieces()[i].getPosition());
+  }
+
+  /** Placements cut short by the time budget are not cached, others only for the same settings. */
+  @Test
+  void testInitPiecesCachedSettings() throws TooManyPiecesException {
+    MapTemplate template = TestValues.getTestTemplate();
+    template.setTeams(2);
+    template.setPlacement(PlacementType.spaced_out);
+    String fingerprint = InitialBoardCache.fingerprint(template);
+    InitialBoardCache.configure(64);
+    Duration budget = PlacementPool.timeBudget();
+    PlacementOptimizer optimizer = PlacementPool.optimizer();
+    try {
+      PlacementPool.configure(PlacementPool.parallelism(), Duration.ZERO, optimizer);
+      createPlaced(template);
+      assertNull(InitialBoardCache.getPlaced(fingerprint));
+
+      PlacementPool.configure(PlacementPool.parallelism(), budget, optimizer);
+      createPlaced(template);
+      assertNotNull(InitialBoardCache.getPlaced(fingerprint));
+      PlacementPool.configure(
+          PlacementPool.parallelism(), budget, PlacementOptimizer.of("annealing"));
+      assertNull(InitialBoardCache.getPlaced(fingerprint));
+    } finally {
+      PlacementPool.configure(PlacementPool.parallelism(), budget, optimizer);
+    }
+  }
+
+  private static GameState createPlaced(MapTemplate template) throws TooManyPiecesException {
+    GameState state = new GameState();
+    state.setTeams(new Team[template.getTeams()]);
+    BoardController bc = new BoardController(state, template);
+    for (int i = 0; i < template.getTeams(); i++) bc.initializeTeam(i, template);
+    bc.initPieces(template, InitialBoardCache.fingerprint(template));
+    return state;
+  }
+
   @SuppressWarnings("unused")
   @Test
   void testGetBoundaries() {
@@ -221,6 +281,15 @@ class BoardControllerTest {
     assertEquals(8, bound9);
   }
 
+  @Test
+  void testSeededRandomFromHash() {
+    MapTemplate template = TestValues.getTestTemplate();
+    int templateHash = new Gson().toJson(template).hashCode();
+    for (int modifier = -20; modifier < 20; modifier++)
+      assertEquals(
+          bordi.seededRandom(template, modifier, 97), bordi.seededRandom(templateHash, modifier, 97));
+  }
+
   void printGrid(GameState gameState) {
     for (int y = 0; y < gameState.getGrid().length; y++) {
       for (int x = 0; x < gameState.getGrid()[y].length; x++)
@@ -10,6 +10,16 @@ import de.unimannheim.swt.pse.ctf.game.state.Piece;
 import org.junit.jupiter.api.Test;
 
 class EngineToolsTest {
+  /** The grid hash has to stay the hash of the concatenated grid, seeds depend on it. */
+  @Test
+  void testGridHash() {
+    String[][] grid = TestValues.getTestState().getGrid();
+    StringBuilder sb = new StringBuilder();
+    for (String[] row : grid) for (String square : row) sb.append(square);
+    assertEquals(sb.toString().hashCode(), EngineTools.gridHash(grid));
+    assertEquals((sb + "42").hashCode(), EngineTools.extendHash(EngineTools.gridHash(grid), "42"));
+  }
+
   /**
    * @author sistumpf
    */
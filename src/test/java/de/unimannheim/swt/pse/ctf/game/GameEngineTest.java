@@ -2,8 +2,26 @@ package de.unimannheim.swt.pse.ctf.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 // import java.sql.Date;
 
+import de.unimannheim.swt.pse.ctf.game.exceptions.InvalidMove;
+import de.unimannheim.swt.pse.ctf.game.exceptions.NoMoreTeamSlots;
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -34,6 +52,219 @@ class GameEngineTest {
     assertNotEquals(color2, color3);
   }
 
+  /**
+   * Plays a game with random valid moves till it is over, checking after each move that the
+   * published GameState is consistent (every piece is on the grid where the team says it is).
+   */
+  @Test
+  void testPlayRandomGame() {
+    GameEngine engine = new GameEngine();
+    engine.create(TestValues.getTestTemplate());
+    engine.joinGame("eins");
+    engine.joinGame("zwei");
+    Random random = new Random(42);
+
+    for (int turn = 0; turn < 300 && !engine.isGameOver(); turn++) {
+      GameState named = engine.getCurrentGameState();
+      GameState ids = new NameIDChanger(null, null).putGameStateIDs(named);
+      int current = named.getCurrentTeam();
+      ArrayList<Move> moves = new ArrayList<Move>();
+      for (int i = 0; i < ids.getTeams()[current].getPieces().length; i++) {
+        for (int[] pos : EngineTools.getPossibleMoves(ids, ids.getTeams()[current].getPieces()[i])) {
+          Move move = new Move();
+          move.setTeamId(named.getTeams()[current].getId());
+          move.setPieceId(named.getTeams()[current].getPieces()[i].getId());
+          move.setNewPosition(pos);
+          moves.add(move);
+        }
+      }
+      engine.makeMove(moves.get(random.nextInt(moves.size())));
+      assertConsistent(engine.getCurrentGameState());
+    }
+  }
+
+  /**
+   * Moves may name their piece as "p:teamName_0" or as "0", the clients move is not changed and the
+   * last move gets the team name again. Moves of the wrong team or unknown pieces are invalid.
+   */
+  @Test
+  void testMakeMoveIds() {
+    GameEngine engine = new GameEngine();
+    engine.create(TestValues.getTestTemplate());
+    engine.joinGame("eins");
+    engine.joinGame("zwei");
+    GameState named = engine.getCurrentGameState();
+    int current = named.getCurrentTeam();
+    String team = named.getTeams()[current].getId();
+    String other = named.getTeams()[1 - current].getId();
+    GameState ids = new NameIDChanger(null, null).putGameStateIDs(named);
+    Piece piece = null;
+    int[] target = null;
+    for (Piece candidate : ids.getTeams()[current].getPieces()) {
+      if (!EngineTools.getPossibleMoves(ids, candidate).isEmpty()) {
+        piece = candidate;
+        target = EngineTools.getPossibleMoves(ids, candidate).get(0);
+        break;
+      }
+    }
+    String index = piece.getId().substring(piece.getId().indexOf('_') + 1);
+
+    Move wrongTeam = new Move();
+    wrongTeam.setTeamId(other);
+    wrongTeam.setPieceId("p:" + other + "_" + index);
+    wrongTeam.setNewPosition(target);
+    assertThrows(InvalidMove.class, () -> engine.makeMove(wrongTeam));
+    Move unknown = new Move();
+    unknown.setTeamId(team);
+    unknown.setPieceId("p:" + team + "_999");
+    unknown.setNewPosition(target);
+    assertThrows(InvalidMove.class, () -> engine.makeMove(unknown));
+
+    Move move = new Move();
+    move.setTeamId(team);
+    move.setPieceId(index);
+    move.setNewPosition(target);
+    engine.makeMove(move);
+
+    assertEquals(index, move.getPieceId());
+    assertEquals(team, move.getTeamId());
+    Move last = engine.getCurrentGameState().getLastMove();
+    assertEquals("p:" + team + "_" + index, last.getPieceId());
+    assertEquals(team, last.getTeamId());
+    assertConsistent(engine.getCurrentGameState());
+  }
+
+  /** Every listed legal move is valid, and every piece move of the current team is listed. */
+  @Test
+  void testGetLegalMoves() {
+    GameEngine engine = new GameEngine();
+    engine.create(TestValues.getTestTemplate());
+    assertEquals(0, engine.getLegalMoves().length);
+    engine.joinGame("eins");
+    engine.joinGame("zwei");
+
+    for (int turn = 0; turn < 20 && !engine.isGameOver(); turn++) {
+      GameState named = engine.getCurrentGameState();
+      GameState ids = new NameIDChanger(null, null).putGameStateIDs(named);
+      int current = named.getCurrentTeam();
+      int possible = 0;
+      for (Piece piece : ids.getTeams()[current].getPieces())
+        possible += EngineTools.getPossibleMoves(ids, piece).size();
+
+      Move[] legal = engine.getLegalMoves();
+      assertEquals(possible, legal.length);
+      assertSame(legal, engine.getLegalMoves());
+      for (Move move : legal) assertEquals(named.getTeams()[current].getId(), move.getTeamId());
+      engine.makeMove(legal[turn % legal.length]);
+    }
+  }
+
+  @Test
+  void testStateListener() {
+    GameEngine engine = new GameEngine();
+    ArrayList<Long> versions = new ArrayList<Long>();
+    engine.addStateListener(versions::add);
+    engine.create(TestValues.getTestTemplate());
+    engine.joinGame("eins");
+    long beforeStart = engine.getStateVersion();
+    engine.joinGame("zwei");
+    GameState state = engine.getCurrentGameState();
+    engine.giveUp(state.getTeams()[state.getCurrentTeam()].getId());
+
+    assertTrue(engine.isGameOver());
+    assertTrue(engine.getStateVersion() > beforeStart);
+    assertEquals(engine.getStateVersion(), versions.get(versions.size() - 1));
+    for (int i = 1; i < versions.size(); i++) assertTrue(versions.get(i) > versions.get(i - 1));
+  }
+
+  /**
+   * The turn of a team is over after the move time limit and 1 second of grace time. A turn end
+   * which runs early gets scheduled again, one from an older turn gets ignored.
+   */
+  @Test
+  void testTurnTimeout() {
+    MapTemplate template = TestValues.getTestTemplate();
+    template.setMoveTimeLimitInSeconds(1);
+    MutableClock clock = new MutableClock();
+    List<Runnable> tasks = new ArrayList<Runnable>();
+    List<Duration> delays = new ArrayList<Duration>();
+    GameEngine engine =
+        new GameEngine(
+            clock,
+            (task, delay) -> {
+              tasks.add(task);
+              delays.add(delay);
+              return null;
+            });
+    engine.create(template);
+    engine.joinGame("eins");
+    engine.joinGame("zwei");
+    int startingTeam = engine.getCurrentGameState().getCurrentTeam();
+    assertEquals(Duration.ofSeconds(2), delays.get(0));
+
+    clock.advance(Duration.ofMillis(1500));
+    tasks.get(0).run();
+    assertEquals(startingTeam, engine.getCurrentGameState().getCurrentTeam());
+    assertEquals(Duration.ofMillis(500), delays.get(1));
+
+    clock.advance(Duration.ofMillis(500));
+    tasks.get(1).run();
+    int nextTeam = engine.getCurrentGameState().getCurrentTeam();
+    assertNotEquals(startingTeam, nextTeam);
+    assertEquals(3, tasks.size());
+
+    clock.advance(Duration.ofSeconds(2));
+    tasks.get(1).run(); // stale
+    assertEquals(nextTeam, engine.getCurrentGameState().getCurrentTeam());
+    tasks.get(2).run();
+    assertNotEquals(nextTeam, engine.getCurrentGameState().getCurrentTeam());
+  }
+
+  @Test
+  void testConcurrentJoins() throws InterruptedException {
+    GameEngine engine = new GameEngine();
+    engine.create(TestValues.getTestTemplate());
+    AtomicInteger joined = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      String teamId = "team" + i;
+      threads[i] =
+          new Thread(
+              () -> {
+                try {
+                  engine.joinGame(teamId);
+                  joined.incrementAndGet();
+                } catch (NoMoreTeamSlots e) {
+                  rejected.incrementAndGet();
+                }
+              });
+    }
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join();
+
+    assertEquals(2, joined.get());
+    assertEquals(threads.length - 2, rejected.get());
+    assertTrue(engine.isStarted());
+    assertConsistent(engine.getCurrentGameState());
+  }
+
+  static void assertConsistent(GameState gameState) {
+    for (Team team : gameState.getTeams()) {
+      if (team == null) continue;
+      assertEquals("b:" + team.getId(), gameState.getGrid()[team.getBase()[0]][team.getBase()[1]]);
+      for (Piece piece : team.getPieces())
+        assertEquals(
+            piece.getId(), gameState.getGrid()[piece.getPosition()[0]][piece.getPosition()[1]]);
+    }
+    int pieces = 0;
+    for (String[] row : gameState.getGrid())
+      for (String cell : row) if (cell.startsWith("p:")) pieces++;
+    int teamPieces = 0;
+    for (Team team : gameState.getTeams()) if (team != null) teamPieces += team.getPieces().length;
+    assertTrue(pieces == teamPieces);
+  }
+
   /**
    * @author sistumpf
    */
@@ -161,4 +392,28 @@ class GameEngineTest {
     assertEquals(capture, gameEngine.getCurrentGameState().getLastMove());
     assertEquals(0, gameEngine.getCurrentGameState().getCurrentTeam());         //Team 1 is gameOver and got removed, technically it's team 0s turn
   }*/
+
+  /** A clock which only moves when the test advances it. */
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.now();
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.systemDefault();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
 }
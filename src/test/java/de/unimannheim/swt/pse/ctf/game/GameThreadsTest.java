@@ -0,0 +1,29 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GameThreadsTest {
+  @AfterEach
+  void tearDown() {
+    GameThreads.setVirtual(false);
+  }
+
+  @Test
+  void testFactory() {
+    GameThreads.setVirtual(true);
+    Thread thread = GameThreads.factory("test-").newThread(() -> {});
+    assertTrue(thread.isDaemon());
+    assertTrue(thread.getName().startsWith("test-1"));
+    // virtual threads only exist on Java 21 and newer
+    assertEquals(Runtime.version().feature() >= 21, GameThreads.isVirtual());
+
+    GameThreads.setVirtual(false);
+    assertFalse(GameThreads.isVirtual());
+    assertEquals("test-1", GameThreads.factory("test-").newThread(() -> {}).getName());
+  }
+}
@@ -0,0 +1,106 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LegalMoveTableTest {
+
+  /**
+   * While playing random games, the table must always agree with generating the moves, and so must
+   * checking if a team got moves left.
+   */
+  @Test
+  void testSameAsGeneratedMoves() {
+    Random random = new Random(11);
+    for (GameState gameState : TestValues.getPlacedDummyStates(4)) {
+      PackedBoard board = PackedBoard.of(gameState);
+      LegalMoveTable table = new LegalMoveTable(gameState, board);
+      PieceRegistry registry = new PieceRegistry(gameState, board);
+      int[] buffer = new int[EngineTools.moveBufferSize(board)];
+      gameState.setCurrentTeam(0);
+
+      for (int turn = 0; turn < 200; turn++) {
+        for (int team = 0; team < gameState.getTeams().length; team++) {
+          assertEquals(
+              EngineTools.teamGotMovesLeft(gameState, board, team), table.teamGotMovesLeft(team));
+          if (gameState.getTeams()[team] == null) continue;
+          for (Piece piece : gameState.getTeams()[team].getPieces()) {
+            int index = PackedBoard.pieceIndex(piece.getId());
+            Set<Integer> generated = new HashSet<Integer>();
+            for (int[] pos : EngineTools.getPossibleMoves(board, piece)) {
+              generated.add(EngineTools.encodeMove(pos[0], pos[1]));
+              assertTrue(table.contains(team, index, pos[0], pos[1]));
+            }
+            Set<Integer> listed = new HashSet<Integer>();
+            for (int i = table.moves(team, index, buffer) - 1; i >= 0; i--) listed.add(buffer[i]);
+            assertEquals(generated, listed);
+            assertFalse(table.contains(team, index, piece.getPosition()[0], piece.getPosition()[1]));
+          }
+        }
+        if (EngineTools.removeMovelessTeams(gameState, board, table)) break;
+
+        Team current = gameState.getTeams()[gameState.getCurrentTeam()];
+        ArrayList<Move> moves = new ArrayList<Move>();
+        for (Piece piece : current.getPieces()) {
+          for (int[] pos : EngineTools.getPossibleMoves(board, piece)) {
+            Move move = new Move();
+            move.setPieceId(piece.getId());
+            move.setNewPosition(pos);
+            moves.add(move);
+          }
+        }
+        EngineTools.computeMove(
+            gameState, board, registry, moves.get(random.nextInt(moves.size())));
+        gameState.setCurrentTeam(EngineTools.getNextTeam(gameState));
+      }
+    }
+  }
+
+  @Test
+  void testStuckPieces() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    LegalMoveTable table = new LegalMoveTable(gameState, board);
+    assertTrue(table.teamGotMovesLeft(0));
+
+    // wall in every piece of team 0
+    for (Piece piece : gameState.getTeams()[0].getPieces()) {
+      int[] pos = piece.getPosition();
+      for (int y = pos[0] - 2; y <= pos[0] + 2; y++)
+        for (int x = pos[1] - 2; x <= pos[1] + 2; x++)
+          if (board.inBounds(y, x) && board.isEmpty(y, x)) board.setBlock(y, x);
+    }
+    assertFalse(EngineTools.teamGotMovesLeft(gameState, board, 0));
+    assertFalse(table.teamGotMovesLeft(0));
+
+    int[] pos = gameState.getTeams()[0].getPieces()[0].getPosition();
+    for (int y = pos[0] - 1; y <= pos[0] + 1; y++)
+      for (int x = pos[1] - 1; x <= pos[1] + 1; x++)
+        if (board.inBounds(y, x) && PackedBoard.kind(board.get(y, x)) == PackedBoard.BLOCK)
+          board.setEmpty(y, x);
+    assertEquals(EngineTools.teamGotMovesLeft(gameState, board, 0), table.teamGotMovesLeft(0));
+  }
+
+  @Test
+  void testOutOfBounds() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    LegalMoveTable table = new LegalMoveTable(gameState, board);
+
+    assertFalse(table.contains(0, 0, -1, 0));
+    assertFalse(table.contains(0, 0, 0, board.getCols()));
+    assertFalse(table.contains(5, 0, 0, 0));
+    assertFalse(table.contains(0, 999, 0, 0));
+  }
+}
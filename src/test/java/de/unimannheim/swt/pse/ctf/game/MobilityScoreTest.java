@@ -0,0 +1,40 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MobilityScoreTest {
+  /** While moving random pieces to random squares, the score must always agree with counting all moves. */
+  @Test
+  void testSameAsFullCount() {
+    Random random = new Random(7);
+    for (GameState gameState : TestValues.getPlacedDummyStates(4)) {
+      PackedBoard board = PackedBoard.of(gameState);
+      MobilityScore score = new MobilityScore(gameState, board);
+
+      for (int step = 0; step < 200; step++) {
+        for (int team = 0; team < gameState.getTeams().length; team++)
+          assertEquals(fullCount(board, gameState.getTeams()[team]), score.teamMoves(team));
+
+        Team team = gameState.getTeams()[random.nextInt(gameState.getTeams().length)];
+        Piece piece = team.getPieces()[random.nextInt(team.getPieces().length)];
+        int y = random.nextInt(board.getRows());
+        int x = random.nextInt(board.getCols());
+        if (!board.isEmpty(y, x)) continue;
+        board.move(piece.getPosition()[0], piece.getPosition()[1], y, x);
+        piece.setPosition(new int[] {y, x});
+      }
+    }
+  }
+
+  private static int fullCount(PackedBoard board, Team team) {
+    int moves = 0;
+    for (Piece piece : team.getPieces()) moves += EngineTools.countMoves(board, piece);
+    return moves;
+  }
+}
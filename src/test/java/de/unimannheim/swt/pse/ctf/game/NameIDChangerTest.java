@@ -153,4 +153,23 @@ class NameIDChangerTest {
     assertEquals("p:zwei_0", move.getPieceId());
     assertEquals("zwei", move.getTeamId());
   }
+
+  @Test
+  void testIndices() {
+    Map<String, Integer> teamToInteger = new HashMap<String, Integer>();
+    teamToInteger.put("eins", 0);
+    teamToInteger.put("team_2", 1);
+    NameIDChanger nidChanger = new NameIDChanger(new HashMap<Integer, String>(), teamToInteger);
+
+    assertEquals(1, nidChanger.teamIndex("team_2"));
+    assertEquals(-1, nidChanger.teamIndex("drei"));
+    assertEquals(-1, nidChanger.teamIndex(null));
+
+    assertEquals(17, NameIDChanger.pieceIndex("p:eins_17", "eins"));
+    assertEquals(17, NameIDChanger.pieceIndex("17", "eins"));
+    assertEquals(3, NameIDChanger.pieceIndex("p:team_2_3", "team_2"));
+    assertEquals(-1, NameIDChanger.pieceIndex("p:zwei_17", "eins"));
+    assertEquals(-1, NameIDChanger.pieceIndex("p:eins_", "eins"));
+    assertEquals(-1, NameIDChanger.pieceIndex(null, "eins"));
+  }
 }
@@ -0,0 +1,61 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NamedStatePublisherTest {
+  /** Published GameStates must look exactly like the deep copies made by NameIDChanger. */
+  @Test
+  void testSameAsNameIDChanger() {
+    Map<Integer, String> integerToTeam = new HashMap<Integer, String>();
+    integerToTeam.put(0, "eins");
+    integerToTeam.put(1, "zwei");
+    NameIDChanger nidChanger = new NameIDChanger(integerToTeam, null);
+    GameState gameState = TestValues.getTestState();
+    gameState.setLastMove(null);
+    PackedBoard board = PackedBoard.of(gameState);
+    PieceRegistry registry = new PieceRegistry(gameState, board);
+    NamedStatePublisher publisher = new NamedStatePublisher(board, integerToTeam, 2);
+    Gson gson = new Gson();
+    Random random = new Random(3);
+
+    GameState last = publisher.publish(gameState);
+    assertEquals(gson.toJson(nidChanger.putGameStateNames(gameState)), gson.toJson(last));
+    for (int turn = 0; turn < 50 && EngineTools.numberOfTeamsLeft(gameState) > 1; turn++) {
+      ArrayList<Move> moves = new ArrayList<Move>();
+      for (Piece piece : gameState.getTeams()[gameState.getCurrentTeam()].getPieces()) {
+        for (int[] pos : EngineTools.getPossibleMoves(board, piece)) {
+          Move move = new Move();
+          move.setPieceId(piece.getId());
+          move.setTeamId("" + gameState.getCurrentTeam());
+          move.setNewPosition(pos);
+          moves.add(move);
+        }
+      }
+      if (moves.isEmpty()) break;
+      Move move = moves.get(random.nextInt(moves.size()));
+      int fromY = registry.get(move.getPieceId()).getPosition()[0];
+      EngineTools.computeMove(gameState, board, registry, move);
+      gameState.setCurrentTeam(EngineTools.getNextTeam(gameState));
+
+      GameState named = publisher.publish(gameState);
+      assertEquals(gson.toJson(nidChanger.putGameStateNames(gameState)), gson.toJson(named));
+      int sharedRows = 0;
+      for (int y = 0; y < board.getRows(); y++) if (named.getGrid()[y] == last.getGrid()[y]) sharedRows++;
+      assertTrue(sharedRows >= board.getRows() - 3); // from, to and maybe a respawn
+      assertNotSame(last.getGrid()[fromY], named.getGrid()[fromY]);
+      last = named;
+    }
+  }
+}
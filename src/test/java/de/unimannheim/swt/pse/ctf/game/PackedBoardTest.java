@@ -0,0 +1,85 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class PackedBoardTest {
+  @Test
+  void testRoundTrip() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    assertArrayEquals(gameState.getGrid(), board.toGrid());
+
+    long cell = board.get(7, 3);
+    assertEquals(PackedBoard.PIECE, PackedBoard.kind(cell));
+    assertEquals(1, PackedBoard.team(cell));
+    assertEquals(2, PackedBoard.piece(cell));
+    assertEquals(5, PackedBoard.attackPower(cell));
+    assertEquals(PackedBoard.BASE, PackedBoard.kind(board.get(9, 9)));
+    assertEquals(PackedBoard.BLOCK, PackedBoard.kind(board.get(4, 7)));
+    assertTrue(board.isEmpty(3, 3));
+    assertFalse(board.inBounds(10, 0));
+  }
+
+  @Test
+  void testValidPos() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    assertTrue(GameUtilities.validPos(board, 3, 3, 0, 1)); // empty
+    assertFalse(GameUtilities.validPos(board, 4, 7, 0, 5)); // block
+    assertFalse(GameUtilities.validPos(board, 0, 0, 0, 5)); // own base
+    assertTrue(GameUtilities.validPos(board, 9, 9, 0, 1)); // other base
+    assertFalse(GameUtilities.validPos(board, 2, 3, 0, 5)); // own piece
+    assertTrue(GameUtilities.validPos(board, 7, 3, 0, 5)); // same attack power
+    assertFalse(GameUtilities.validPos(board, 7, 3, 0, 4)); // stronger opponent
+    assertFalse(GameUtilities.validPos(board, -1, 3, 0, 5)); // out of bounds
+  }
+
+  /** The board based move generation must return the same moves as the String grid based one. */
+  @Test
+  void testSameMovesAsGrid() {
+    for (GameState gameState : TestValues.getPlacedDummyStates(4)) assertSameMoves(gameState);
+  }
+
+  static void assertSameMoves(GameState gameState) {
+    PackedBoard board = PackedBoard.of(gameState);
+    for (int team = 0; team < gameState.getTeams().length; team++) {
+      if (gameState.getTeams()[team] == null) continue;
+      gameState.setCurrentTeam(team);
+      for (Piece piece : gameState.getTeams()[team].getPieces()) {
+        ArrayList<int[]> moves = EngineTools.getPossibleMoves(gameState, piece);
+        assertEquals(asSet(moves), asSet(EngineTools.getPossibleMoves(board, piece)), piece.getId());
+        assertEquals(moves.size(), EngineTools.countMoves(board, piece));
+        assertEquals(moves.size() > 0, EngineTools.hasAnyMove(board, piece));
+      }
+    }
+  }
+
+  @Test
+  void testGenerateMovesIntoBuffer() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    int[] buffer = new int[EngineTools.moveBufferSize(board)];
+    Piece rook = gameState.getTeams()[1].getPieces()[1]; // on 7,3
+    int moves = EngineTools.generateMoves(board, rook, buffer);
+    Set<String> generated = new TreeSet<String>();
+    for (int i = 0; i < moves; i++)
+      generated.add(EngineTools.moveY(buffer[i]) + "," + EngineTools.moveX(buffer[i]));
+    assertEquals(Set.of("6,3", "8,3", "9,3"), generated);
+  }
+
+  static Set<String> asSet(ArrayList<int[]> moves) {
+    Set<String> set = new TreeSet<String>();
+    for (int[] move : moves) set.add(move[0] + "," + move[1]);
+    return set;
+  }
+}
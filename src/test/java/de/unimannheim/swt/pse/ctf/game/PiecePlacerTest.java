@@ -9,6 +9,7 @@ import de.unimannheim.swt.pse.ctf.game.state.GameState;
 import de.unimannheim.swt.pse.ctf.game.state.Piece;
 import de.unimannheim.swt.pse.ctf.game.state.Team;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -98,6 +99,32 @@ class PiecePlacerTest {
     assertTrue(pp.gameStatePossibleMoves(stateList.get(0))  > pp.gameStatePossibleMoves(stateList.get(1)));
   }*/
 
+  @Test
+  void testTimeBudget() {
+    Duration budget = PlacementPool.timeBudget();
+    PlacementPool.configure(
+        PlacementPool.parallelism(), Duration.ZERO, PlacementPool.optimizer());
+    try {
+      GameState gs = TestValues.getTestState();
+      MapTemplate mt = TestValues.getTestTemplate();
+      mt.setGridSize(new int[] {10, 10});
+      mt.setTeams(2);
+      gs.setTeams(new Team[2]);
+      BoardController bc = new BoardController(gs, mt);
+      for (int i = 0; i < bc.gameState.getTeams().length; i++) bc.initializeTeam(i, mt);
+      PiecePlacer pp = new PiecePlacer(bc.gameState, bc.boundaries);
+      pp.placePieces(PlacementType.spaced_out);
+
+      // no hill climbing, but every piece got placed
+      for (Team team : pp.gameState.getTeams())
+        for (Piece piece : team.getPieces())
+          assertEquals(
+              piece.getId(), pp.gameState.getGrid()[piece.getPosition()[0]][piece.getPosition()[1]]);
+    } finally {
+      PlacementPool.configure(PlacementPool.parallelism(), budget, PlacementPool.optimizer());
+    }
+  }
+
   @Test
   void testPlacePiecesSpaced() {
     GameState gs = TestValues.getTestState();
@@ -241,25 +268,17 @@ class PiecePlacerTest {
   ReferenceMove getShuffledNeighbour(
       PiecePlacer pp,
       GameState gameState,
-      LinkedHashSet<Piece> ignoreThese,
+      LinkedHashSet<Piece> swapThese,
       int teamID,
       int[] spacedOutSideSteps) {
-    try {
-      Method privateMethod =
-          pp.getClass()
-              .getDeclaredMethod(
-                  "getShuffledNeighbour",
-                  GameState.class,
-                  LinkedHashSet.class,
-                  int.class,
-                  int[].class);
-      privateMethod.setAccessible(true);
-      return (ReferenceMove)
-          privateMethod.invoke(pp, gameState, ignoreThese, teamID, spacedOutSideSteps);
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-    return null;
+    PackedBoard board = PackedBoard.of(gameState);
+    return new HillClimbingOptimizer(10)
+        .shuffledNeighbour(
+            board,
+            new MobilityScore(gameState, board),
+            teamID,
+            new ArrayList<Piece>(swapThese),
+            spacedOutSideSteps);
   }
 
   ReferenceMove getBestNeighbour(
@@ -268,30 +287,22 @@ class PiecePlacerTest {
       LinkedHashSet<Piece> ignoreThese,
       int teamID,
       int[] spacedOutSideSteps) {
-    try {
-      Method privateMethod =
-          pp.getClass()
-              .getDeclaredMethod(
-                  "getBestNeighbour", GameState.class, LinkedHashSet.class, int.class, int[].class);
-      privateMethod.setAccessible(true);
-      return (ReferenceMove)
-          privateMethod.invoke(pp, gameState, ignoreThese, teamID, spacedOutSideSteps);
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-    return null;
+    PackedBoard board = PackedBoard.of(gameState);
+    ArrayList<Piece> movable = new ArrayList<Piece>();
+    for (Piece piece : gameState.getTeams()[teamID].getPieces())
+      if (!ignoreThese.contains(piece)) movable.add(piece);
+    return new HillClimbingOptimizer(10)
+        .movedNeighbour(
+            board,
+            new MobilityScore(gameState, board),
+            teamID,
+            movable,
+            pp.boundaries[teamID],
+            spacedOutSideSteps);
   }
 
   int getNumberPossibleMoves(PiecePlacer pp, int team) {
-    try {
-      Method privateMethod =
-          pp.getClass().getDeclaredMethod("numberPossibleMoves", GameState.class, int.class);
-      privateMethod.setAccessible(true);
-      return (Integer) privateMethod.invoke(pp, pp.gameState, team);
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-    return 0;
+    return new MobilityScore(pp.gameState, PackedBoard.of(pp.gameState)).teamMoves(team);
   }
 
   int getGameStatePossibleMoves(PiecePlacer pp) {
@@ -0,0 +1,41 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import org.junit.jupiter.api.Test;
+
+class PieceRegistryTest {
+  @Test
+  void testGet() {
+    GameState gameState = TestValues.getTestState();
+    PieceRegistry registry = new PieceRegistry(gameState, PackedBoard.of(gameState));
+    Piece piece = gameState.getTeams()[1].getPieces()[1];
+    assertSame(piece, registry.get(piece.getId()));
+    assertSame(piece, registry.at(piece.getPosition()[0], piece.getPosition()[1]));
+    assertNull(registry.get("p:1_somepieceid"));
+    assertNull(registry.get("p:7_1"));
+    assertNull(registry.at(3, 3));
+
+    gameState.getTeams()[1] = null;
+    assertNull(registry.get(piece.getId()));
+  }
+
+  @Test
+  void testRemove() {
+    GameState gameState = TestValues.getTestState();
+    PieceRegistry registry = new PieceRegistry(gameState, PackedBoard.of(gameState));
+    Piece[] pieces = gameState.getTeams()[0].getPieces();
+    registry.remove(0, PackedBoard.pieceIndex(pieces[0].getId()));
+
+    assertEquals(pieces.length - 1, gameState.getTeams()[0].getPieces().length);
+    for (int i = 1; i < pieces.length; i++)
+      assertSame(pieces[i], gameState.getTeams()[0].getPieces()[i - 1]);
+    assertNull(registry.get(pieces[0].getId()));
+    assertSame(pieces[1], PieceRegistry.find(gameState.getTeams()[0], pieces[1].getId()));
+    assertNull(PieceRegistry.find(gameState.getTeams()[0], pieces[0].getId()));
+  }
+}
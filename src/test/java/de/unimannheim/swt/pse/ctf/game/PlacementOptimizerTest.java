@@ -0,0 +1,81 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
+import de.unimannheim.swt.pse.ctf.game.map.PlacementType;
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PlacementOptimizerTest {
+
+  @Test
+  void testOf() {
+    assertInstanceOf(HillClimbingOptimizer.class, PlacementOptimizer.of("hill-climbing"));
+    assertInstanceOf(AnnealingOptimizer.class, PlacementOptimizer.of("annealing"));
+    assertThrows(IllegalArgumentException.class, () -> PlacementOptimizer.of("tabu"));
+  }
+
+  /** Annealing keeps the best placement it found, so it never ends worse than it started. */
+  @Test
+  void testAnnealingNeverWorse() {
+    PiecePlacer pp = createPlacer();
+    GameState gameState = pp.gameState;
+    PackedBoard board = PackedBoard.of(gameState);
+    MobilityScore score = new MobilityScore(gameState, board);
+    List<Piece> movable = Arrays.asList(gameState.getTeams()[0].getPieces());
+    int before = score.teamMoves(0);
+
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    new AnnealingOptimizer(200)
+        .optimize(board, score, 0, movable, pp.boundaries[0], false, 0, deadline);
+
+    assertTrue(score.teamMoves(0) >= before);
+    assertEquals(new MobilityScore(gameState, board).teamMoves(0), score.teamMoves(0));
+    for (Piece piece : movable) {
+      int[] pos = piece.getPosition();
+      assertEquals(piece.getId(), board.toGrid()[pos[0]][pos[1]]);
+      assertTrue(pos[0] >= pp.boundaries[0][0] && pos[0] <= pp.boundaries[0][1]);
+      assertTrue(pos[1] >= pp.boundaries[0][2] && pos[1] <= pp.boundaries[0][3]);
+    }
+  }
+
+  @Test
+  void testDeadlinePassed() {
+    PiecePlacer pp = createPlacer();
+    GameState gameState = pp.gameState;
+    PackedBoard board = PackedBoard.of(gameState);
+    String[][] grid = board.toGrid();
+    MobilityScore score = new MobilityScore(gameState, board);
+    List<Piece> movable = Arrays.asList(gameState.getTeams()[0].getPieces());
+    long deadline = System.nanoTime() - 1;
+
+    new AnnealingOptimizer(200)
+        .optimize(board, score, 0, movable, pp.boundaries[0], false, 0, deadline);
+    new HillClimbingOptimizer(10)
+        .optimize(board, score, 0, movable, pp.boundaries[0], false, 0, deadline);
+
+    assertArrayEquals(grid, board.toGrid());
+  }
+
+  private static PiecePlacer createPlacer() {
+    GameState gs = TestValues.getTestState();
+    MapTemplate mt = TestValues.getTestTemplate();
+    mt.setGridSize(new int[] {10, 10});
+    mt.setTeams(2);
+    gs.setTeams(new Team[2]);
+    BoardController bc = new BoardController(gs, mt);
+    for (int i = 0; i < bc.gameState.getTeams().length; i++) bc.initializeTeam(i, mt);
+    PiecePlacer pp = new PiecePlacer(bc.gameState, bc.boundaries);
+    pp.placePieces(PlacementType.symmetrical);
+    return pp;
+  }
+}
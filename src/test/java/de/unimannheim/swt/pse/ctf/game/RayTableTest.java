@@ -0,0 +1,68 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RayTableTest {
+
+  /** Boards wider and higher than 64 squares need more than one word per line. */
+  @Test
+  void testSameAsWalking() {
+    Random random = new Random(5);
+    PackedBoard board = new PackedBoard(70, 130);
+    for (int i = 0; i < 1500; i++) {
+      int y = random.nextInt(board.getRows());
+      int x = random.nextInt(board.getCols());
+      switch (random.nextInt(3)) {
+        case 0:
+          board.setBlock(y, x);
+          break;
+        case 1:
+          board.setBase(y, x, random.nextInt(2));
+          break;
+        default:
+          board.setPiece(y, x, random.nextInt(2), i, 1);
+      }
+    }
+    RayTable rays = board.rays();
+    assertSameAsWalking(board, rays);
+
+    // pieces move and get captured, a block appears
+    for (int i = 0; i < 500; i++) {
+      int fromY = random.nextInt(board.getRows());
+      int fromX = random.nextInt(board.getCols());
+      if (PackedBoard.kind(board.get(fromY, fromX)) != PackedBoard.PIECE) continue;
+      board.move(fromY, fromX, random.nextInt(board.getRows()), random.nextInt(board.getCols()));
+    }
+    board.setBlock(35, 64);
+    assertSameAsWalking(board, rays);
+  }
+
+  private static void assertSameAsWalking(PackedBoard board, RayTable rays) {
+    for (int y = 0; y < board.getRows(); y++) {
+      for (int x = 0; x < board.getCols(); x++) {
+        for (int direction = 0; direction < 8; direction++) {
+          int blockReach = 0;
+          int firstOccupied = 0;
+          int newY = y + GameUtilities.DIRECTION_Y[direction];
+          int newX = x + GameUtilities.DIRECTION_X[direction];
+          while (board.inBounds(newY, newX)
+              && PackedBoard.kind(board.get(newY, newX)) != PackedBoard.BLOCK) {
+            blockReach++;
+            if (firstOccupied == 0 && !board.isEmpty(newY, newX)) firstOccupied = blockReach;
+            newY += GameUtilities.DIRECTION_Y[direction];
+            newX += GameUtilities.DIRECTION_X[direction];
+          }
+          assertEquals(blockReach, rays.blockReach(direction, y, x));
+          assertEquals(firstOccupied, rays.firstOccupied(direction, y, x, blockReach));
+          int limit = blockReach / 2;
+          assertEquals(
+              firstOccupied <= limit ? firstOccupied : 0,
+              rays.firstOccupied(direction, y, x, limit));
+        }
+      }
+    }
+  }
+}
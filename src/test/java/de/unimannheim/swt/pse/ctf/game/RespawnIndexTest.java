@@ -0,0 +1,57 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.Piece;
+import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RespawnIndexTest {
+
+  @Test
+  void testRingTable() {
+    for (int distance = 1; distance < 20; distance++) {
+      assertArrayEquals(
+          EngineTools.fillYTransformations(new int[distance * 8], distance), RingTable.y(distance));
+      assertArrayEquals(
+          EngineTools.fillXTransformations(new int[distance * 8], distance), RingTable.x(distance));
+    }
+  }
+
+  /** While moving random pieces around, the counts must always agree with counting the rings. */
+  @Test
+  void testSameAsRingCount() {
+    GameState gameState = TestValues.getTestState();
+    PackedBoard board = PackedBoard.of(gameState);
+    RespawnIndex index = new RespawnIndex(gameState, board, new Random(1));
+    Random random = new Random(7);
+
+    for (int step = 0; step < 200; step++) {
+      for (int team = 0; team < gameState.getTeams().length; team++) {
+        int[] base = gameState.getTeams()[team].getBase();
+        int nearest = 0;
+        for (int distance = 1; distance < board.getRows(); distance++) {
+          int free = EngineTools.freeOnRing(board, base, distance);
+          assertEquals(free, index.freeSquares(team, distance));
+          if (nearest == 0 && free > 0) nearest = distance;
+        }
+        int[] respawn = index.respawnPosition(team);
+        assertTrue(board.isEmpty(respawn[0], respawn[1]));
+        assertEquals(
+            nearest, Math.max(Math.abs(respawn[0] - base[0]), Math.abs(respawn[1] - base[1])));
+      }
+
+      Team team = gameState.getTeams()[random.nextInt(gameState.getTeams().length)];
+      Piece piece = team.getPieces()[random.nextInt(team.getPieces().length)];
+      int y = random.nextInt(board.getRows());
+      int x = random.nextInt(board.getCols());
+      if (!board.isEmpty(y, x)) continue;
+      board.move(piece.getPosition()[0], piece.getPosition()[1], y, x);
+      piece.setPosition(new int[] {y, x});
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package de.unimannheim.swt.pse.ctf.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.unimannheim.swt.pse.ctf.game.state.GameState;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta;
+import de.unimannheim.swt.pse.ctf.game.state.GameStateDelta.CellChange;
+import de.unimannheim.swt.pse.ctf.game.state.Move;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class StateHistoryTest {
+  @Test
+  void testDelta() {
+    Map<Integer, String> integerToTeam = new HashMap<Integer, String>();
+    integerToTeam.put(0, "eins");
+    integerToTeam.put(1, "zwei");
+    GameState gameState = TestValues.getTestState();
+    gameState.setLastMove(null);
+    PackedBoard board = PackedBoard.of(gameState);
+    NamedStatePublisher publisher = new NamedStatePublisher(board, integerToTeam, 2);
+    StateHistory history = new StateHistory(2);
+    assertNull(history.since(0));
+
+    GameState first = publisher.publish(gameState);
+    history.record(1, first);
+
+    // the rook on 7,3 moves down to 9,3
+    Move move = new Move();
+    move.setTeamId("1");
+    move.setPieceId(gameState.getTeams()[1].getPieces()[1].getId());
+    move.setNewPosition(new int[] {9, 3});
+    gameState.setCurrentTeam(1);
+    EngineTools.computeMove(gameState, board, move);
+    gameState.setCurrentTeam(0);
+    GameState second = publisher.publish(gameState);
+    history.record(2, second);
+
+    GameStateDelta delta = history.since(1);
+    assertFalse(delta.isFull());
+    assertEquals(1, delta.getSince());
+    assertEquals(2, delta.getVersion());
+    assertEquals(0, delta.getCurrentTeam());
+    assertEquals(2, delta.getCells().length);
+    assertEquals(0, delta.getTeams().length);
+
+    String[][] grid = new String[first.getGrid().length][];
+    for (int y = 0; y < grid.length; y++) grid[y] = first.getGrid()[y].clone();
+    for (CellChange cell : delta.getCells())
+      grid[cell.getPosition()[0]][cell.getPosition()[1]] = cell.getValue();
+    assertArrayEquals(second.getGrid(), grid);
+
+    // version 1 falls out of the history
+    history.record(3, second);
+    history.record(4, second);
+    delta = history.since(1);
+    assertTrue(delta.isFull());
+    assertSame(second, delta.getState());
+    assertEquals(4, delta.getVersion());
+  }
+}
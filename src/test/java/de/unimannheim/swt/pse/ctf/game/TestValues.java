@@ -1,12 +1,17 @@
 package de.unimannheim.swt.pse.ctf.game;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import de.unimannheim.swt.pse.ctf.game.exceptions.TooManyPiecesException;
 import de.unimannheim.swt.pse.ctf.game.map.MapTemplate;
 import de.unimannheim.swt.pse.ctf.game.state.GameState;
 import de.unimannheim.swt.pse.ctf.game.state.Move;
 import de.unimannheim.swt.pse.ctf.game.state.Piece;
 import de.unimannheim.swt.pse.ctf.game.state.Team;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class used to generate test GameStates and MapTemplates
@@ -206,4 +211,34 @@ public class TestValues {
 
     return templates;
   }
+
+  /**
+   * Places the pieces of every dummy template with 8 blocks, the boards the incremental caches get
+   * compared against full move generation on. Templates whose pieces do not fit on the board are
+   * skipped, but at least {@code minBoards} have to be placed, so a test cannot pass without
+   * checking anything.
+   *
+   * @param minBoards minimum number of placed boards
+   * @return one GameState with IDs per placed template
+   */
+  static List<GameState> getPlacedDummyStates(int minBoards) {
+    List<GameState> states = new ArrayList<GameState>();
+    for (MapTemplate template : getDummyTeplates()) {
+      template.setBlocks(8);
+      GameState gameState = new GameState();
+      gameState.setTeams(new Team[template.getTeams()]);
+      BoardController bc = new BoardController(gameState, template);
+      for (int i = 0; i < template.getTeams(); i++) bc.initializeTeam(i, template);
+      try {
+        bc.initPieces(template.getPlacement());
+      } catch (TooManyPiecesException e) {
+        continue;
+      }
+      states.add(gameState);
+    }
+    assertTrue(
+        states.size() >= minBoards,
+        "only " + states.size() + " of " + minBoards + " dummy templates could be placed");
+    return states;
+  }
 }
@@ -0,0 +1,58 @@
+package de.unimannheim.swt.pse.ctf.game.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unimannheim.swt.pse.ctf.game.PackedBoard;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class MovementTableTest {
+
+  @Test
+  void testCompile() throws IOException {
+    for (PieceDescription description : readTemplate().getPieces()) {
+      MovementTable table = MovementTable.compile(description);
+      assertEquals(description.getAttackPower(), table.attackPower());
+      Directions directions = description.getMovement().getDirections();
+      if (directions == null) {
+        assertFalse(table.hasDirections());
+        assertEquals(description.getMovement().getShape().getType(), table.shape());
+        continue;
+      }
+      assertEquals(directions.getLeft(), table.reach(0));
+      assertEquals(directions.getRight(), table.reach(1));
+      assertEquals(directions.getUp(), table.reach(2));
+      assertEquals(directions.getDown(), table.reach(3));
+      assertEquals(directions.getUpLeft(), table.reach(4));
+      assertEquals(directions.getUpRight(), table.reach(5));
+      assertEquals(directions.getDownLeft(), table.reach(6));
+      assertEquals(directions.getDownRight(), table.reach(7));
+    }
+  }
+
+  /** A board compiles every description once, other boards compile their own. */
+  @Test
+  void testCompiledOncePerBoard() throws IOException {
+    PieceDescription description = readTemplate().getPieces()[0];
+    PackedBoard board = new PackedBoard(2, 2);
+    MovementTable table = board.movement(description);
+
+    assertSame(table, board.movement(description));
+    description.setAttackPower(description.getAttackPower() + 1);
+    assertSame(table, board.movement(description));
+    PackedBoard other = new PackedBoard(2, 2);
+    assertNotSame(table, other.movement(description));
+    assertEquals(description.getAttackPower(), other.movement(description).attackPower());
+  }
+
+  private MapTemplate readTemplate() throws IOException {
+    return new ObjectMapper()
+        .readValue(
+            getClass().getResourceAsStream("/maptemplates/10x10_2teams_example.json"),
+            MapTemplate.class);
+  }
+}